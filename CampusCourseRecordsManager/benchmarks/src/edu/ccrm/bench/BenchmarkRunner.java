@@ -0,0 +1,45 @@
+package edu.ccrm.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Runs the benchmark suite and writes machine-readable JSON results.
+// Standard JMH options are accepted, e.g. "-p students=1000,10000" or a benchmark regex.
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        Path resultFile = Path.of(System.getProperty("ccrm.bench.result", "benchmarks/results/jmh-result.json"));
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+
+        CommandLineOptions commandLine = parseArguments(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        Options options = builder
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.toString())
+                .build();
+
+        new Runner(options).run();
+        System.out.println("Benchmark results written to: " + resultFile.toAbsolutePath());
+    }
+
+    private static CommandLineOptions parseArguments(String[] args) throws RunnerException {
+        try {
+            return new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            throw new RunnerException("Invalid benchmark arguments: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.exceptions.DataExportException;
+import edu.ccrm.io.ImportExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Full CSV export and import passes; one invocation processes the whole table
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int students;
+
+    private ImportExportService importExportService;
+    private Path workDir;
+    private Path studentsFile;
+    private Path coursesFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, DataExportException {
+        SyntheticData.populate(students, 42L);
+        importExportService = new ImportExportService();
+        workDir = Files.createTempDirectory("ccrm-bench");
+        studentsFile = workDir.resolve("students.csv");
+        coursesFile = workDir.resolve("courses.csv");
+
+        // Seed files for the import benchmarks
+        importExportService.exportStudentsToCSV(studentsFile.toString());
+        importExportService.exportCoursesToCSV(coursesFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(studentsFile);
+        Files.deleteIfExists(coursesFile);
+        Files.deleteIfExists(workDir.resolve("students_out.csv"));
+        Files.deleteIfExists(workDir);
+    }
+
+    @Benchmark
+    public void exportStudents() throws DataExportException {
+        importExportService.exportStudentsToCSV(workDir.resolve("students_out.csv").toString());
+    }
+
+    @Benchmark
+    public void importStudents() throws DataExportException {
+        importExportService.importStudentsFromCSV(studentsFile.toString());
+    }
+
+    @Benchmark
+    public void importCourses() throws DataExportException {
+        importExportService.importCoursesFromCSV(coursesFile.toString());
+    }
+}
@@ -0,0 +1,137 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.exceptions.DuplicateEnrollmentException;
+import edu.ccrm.exceptions.MaxCreditLimitExceededException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Service-layer hot paths against a synthetic campus of the given size
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    private static final int MAX_CREDITS = 18;  // StudentService's per-semester limit
+    private static final int ENROLL_PAIRS = 4096;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int students;
+
+    private SyntheticData data;
+    private StudentService studentService;
+    private CourseService courseService;
+    private EnrollmentService enrollmentService;
+    private TranscriptService transcriptService;
+    private Student[] enrollStudents;  // Pairs with credit headroom for enrollStudent
+    private Course[] enrollCourses;
+    private int nextEnroll;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = SyntheticData.populate(students, 42L);
+        studentService = StudentService.getInstance();
+        courseService = CourseService.getInstance();
+        enrollmentService = EnrollmentService.getInstance();
+        transcriptService = new TranscriptService();
+        pickEnrollPairs(new Random(7L));
+    }
+
+    // Synthetic students carry 12-16 credits, so a random course would mostly hit the credit limit.
+    // Pick students with headroom and a course that fits, so enrollStudent measures the success path.
+    private void pickEnrollPairs(Random random) {
+        enrollStudents = new Student[ENROLL_PAIRS];
+        enrollCourses = new Course[ENROLL_PAIRS];
+        int found = 0;
+        while (found < ENROLL_PAIRS) {
+            Student student = data.randomStudent(random);
+            int credits = 0;
+            for (Enrollment enrollment : student.getEnrollments()) credits += enrollment.getCourse().getCredits();
+            for (int attempt = 0; attempt < 20; attempt++) {
+                Course course = data.randomCourse(random);
+                if (credits + course.getCredits() <= MAX_CREDITS && !enrollmentService.isEnrolled(student, course)) {
+                    enrollStudents[found] = student;
+                    enrollCourses[found] = course;
+                    found++;
+                    break;
+                }
+            }
+        }
+    }
+
+    // Enroll then unenroll a pair that fits, so every invocation succeeds and the dataset is unchanged
+    @Benchmark
+    public boolean enrollStudent() {
+        int pair = nextEnroll;
+        nextEnroll = (pair + 1) % ENROLL_PAIRS;
+        Student student = enrollStudents[pair];
+        Course course = enrollCourses[pair];
+        try {
+            studentService.enrollStudent(student, course);
+        } catch (DuplicateEnrollmentException | MaxCreditLimitExceededException e) {
+            throw new IllegalStateException("Enroll benchmark pair was rejected: " + e.getMessage(), e);
+        }
+        studentService.unenrollStudent(student, course);
+        return true;
+    }
+
+    @Benchmark
+    public boolean recordGrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Student student = data.randomStudent(random);
+        List<Enrollment> enrollments = student.getEnrollments();
+        Course course = enrollments.get(random.nextInt(enrollments.size())).getCourse();
+        return enrollmentService.recordGrade(student, course, 40 + random.nextInt(61));
+    }
+
+    @Benchmark
+    public double calculateGpa() {
+        return data.randomStudent(ThreadLocalRandom.current()).calculateGPA();
+    }
+
+    @Benchmark
+    public List<Student> topTenStudents() {
+        return studentService.getTopStudents(10);
+    }
+
+    @Benchmark
+    public List<Student> studentsWithGpaAbove() {
+        return studentService.getStudentsWithGpaAbove(9.5);
+    }
+
+    @Benchmark
+    public List<Student> searchByName() {
+        return studentService.searchByName("patel " + ThreadLocalRandom.current().nextInt(students));
+    }
+
+    @Benchmark
+    public List<Course> searchByDepartment() {
+        return courseService.searchByDepartment(data.randomDepartment(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public List<Course> searchBySemester() {
+        return courseService.searchBySemester(Semester.FALL);
+    }
+
+    @Benchmark
+    public List<Course> searchByInstructor() {
+        List<Instructor> instructors = data.getInstructors();
+        return courseService.searchByInstructor(instructors.get(ThreadLocalRandom.current().nextInt(instructors.size())));
+    }
+
+    @Benchmark
+    public String generateTranscript() {
+        return transcriptService.generateTranscript(data.randomStudent(ThreadLocalRandom.current()));
+    }
+}
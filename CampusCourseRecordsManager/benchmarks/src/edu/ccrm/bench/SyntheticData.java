@@ -0,0 +1,112 @@
+package edu.ccrm.bench;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic synthetic campus used by every benchmark: students, courses, instructors and graded enrollments
+public class SyntheticData {
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Maya", "Liam", "Noah", "Olivia", "Priya", "Sofia", "Ethan",
+            "Zara", "Lucas", "Amara", "Kenji", "Fatima", "Diego", "Hannah", "Ravi"
+    };
+    private static final String[] LAST_NAMES = {
+            "Patel", "Smith", "Garcia", "Nguyen", "Khan", "Johnson", "Silva", "Tanaka",
+            "Okafor", "Müller", "Rossi", "Cohen", "Ivanova", "Brown", "Sharma", "Lopez"
+    };
+    private static final String[] DEPARTMENTS = {
+            "Computer Science", "Mathematics", "Physics", "Chemistry", "Biology", "Economics",
+            "History", "Philosophy", "Electrical Engineering", "Mechanical Engineering", "Statistics", "Linguistics"
+    };
+    private static final int ENROLLMENTS_PER_STUDENT = 4;
+
+    private final List<Student> students;
+    private final List<Course> courses;
+    private final List<Instructor> instructors;
+
+    private SyntheticData(List<Student> students, List<Course> courses, List<Instructor> instructors) {
+        this.students = students;
+        this.courses = courses;
+        this.instructors = instructors;
+    }
+
+    // Clears the services and loads a campus of the given size; same seed, same data
+    public static SyntheticData populate(int studentCount, long seed) {
+        StudentService studentService = StudentService.getInstance();
+        CourseService courseService = CourseService.getInstance();
+        EnrollmentService enrollmentService = EnrollmentService.getInstance();
+
+        enrollmentService.clear();
+        studentService.clear();
+        courseService.clear();
+
+        Random random = new Random(seed);
+        int courseCount = Math.max(20, Math.min(5000, studentCount / 50));
+        int instructorCount = Math.max(5, courseCount / 4);
+
+        List<Instructor> instructors = new ArrayList<>(instructorCount);
+        for (int i = 0; i < instructorCount; i++) {
+            instructors.add(new Instructor("I" + i, "Dr. " + pick(LAST_NAMES, random),
+                    "instructor" + i + "@uni.edu", DEPARTMENTS[i % DEPARTMENTS.length]));
+        }
+
+        List<Course> courses = new ArrayList<>(courseCount);
+        Semester[] semesters = Semester.values();
+        for (int i = 0; i < courseCount; i++) {
+            Instructor instructor = instructors.get(i % instructorCount);
+            Course course = new Course.Builder("C" + i, "Course " + i)
+                    .credits(3 + random.nextInt(2))
+                    .instructor(instructor)
+                    .semester(semesters[i % semesters.length])
+                    .department(instructor.getDepartment())
+                    .build();
+            courseService.addCourse(course);
+            courses.add(course);
+        }
+
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            Student student = new Student("S" + i, String.valueOf(2020000 + i),
+                    pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random) + " " + i,
+                    "student" + i + "@student.uni.edu");
+            studentService.addStudent(student);
+            students.add(student);
+
+            int first = random.nextInt(courseCount);
+            for (int k = 0; k < ENROLLMENTS_PER_STUDENT; k++) {
+                Enrollment enrollment = new Enrollment(student, courses.get((first + k) % courseCount));
+                enrollmentService.addEnrollment(enrollment);
+                if (random.nextInt(10) < 8) {
+                    enrollment.recordMarks(35 + random.nextInt(66));
+                }
+            }
+        }
+
+        return new SyntheticData(students, courses, instructors);
+    }
+
+    public List<Student> getStudents() { return students; }
+    public List<Course> getCourses() { return courses; }
+    public List<Instructor> getInstructors() { return instructors; }
+
+    public Student randomStudent(Random random) {
+        return students.get(random.nextInt(students.size()));
+    }
+
+    public Course randomCourse(Random random) {
+        return courses.get(random.nextInt(courses.size()));
+    }
+
+    public String randomDepartment(Random random) {
+        return pick(DEPARTMENTS, random);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -1,5 +1,6 @@
 package edu.ccrm.cli;
 
+import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.*;
 import edu.ccrm.io.*;
@@ -8,6 +9,8 @@ import edu.ccrm.util.DataLoader;
 
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class CLIInterface {
     private final Scanner scanner;
@@ -15,8 +18,14 @@ public class CLIInterface {
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
     private final TranscriptService transcriptService;
+    private final ReportAnalytics reportAnalytics;
     private final ImportExportService importExportService;
     private final BackupService backupService;
+    private final BatchTranscriptGenerator transcriptGenerator;
+    private final SnapshotService snapshotService;
+    private final RecoveryService recoveryService;
+
+    private static final int LIST_PAGE_SIZE = 20;
 
     public CLIInterface() {
         this.scanner = new Scanner(System.in);
@@ -24,11 +33,31 @@ public class CLIInterface {
         this.courseService = CourseService.getInstance();
         this.enrollmentService = EnrollmentService.getInstance();
         this.transcriptService = new TranscriptService();
+        this.reportAnalytics = ReportAnalytics.getInstance();
         this.importExportService = new ImportExportService();
         this.backupService = new BackupService();
+        this.transcriptGenerator = new BatchTranscriptGenerator();
+        this.snapshotService = new SnapshotService();
+        this.recoveryService = new RecoveryService();
+
+        AppConfig config = AppConfig.getInstance();
+        enrollmentService.setStorageMode(StorageMode.parse(config.getStorageMode()), config.getSlabDirectory());
+
+        // Restore journaled state, or start from sample data
+        if (!restoreState()) {
+            DataLoader.loadSampleData();
+        }
+        backupService.startMaintenance();
+    }
 
-        // Load sample data
-        DataLoader.loadSampleData();
+    private boolean restoreState() {
+        if (!AppConfig.getInstance().isJournalEnabled()) return false;
+        try {
+            return recoveryService.start();
+        } catch (java.io.IOException | RuntimeException e) {
+            System.out.println("Warning: Could not recover saved state: " + e.getMessage());
+            return false;
+        }
     }
 
     public void start() {
@@ -82,6 +111,12 @@ public class CLIInterface {
             }
         }
 
+        backupService.stopMaintenance();
+        try {
+            recoveryService.shutdown();
+        } catch (java.io.IOException e) {
+            System.out.println("Warning: Could not close journal: " + e.getMessage());
+        }
         scanner.close();
     }
 
@@ -116,6 +151,7 @@ public class CLIInterface {
             System.out.println("5. Deactivate Student");
             System.out.println("6. View Student Profile");
             System.out.println("7. View Student Transcript");
+            System.out.println("8. Find Students (GPA range, status, name prefix)");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -142,6 +178,9 @@ public class CLIInterface {
                 case 7:
                     viewStudentTranscript();
                     break;
+                case 8:
+                    findStudents();
+                    break;
                 case 0:
                     backToMain = true;
                     break studentMenu;
@@ -167,19 +206,34 @@ public class CLIInterface {
 
     private void listAllStudents() {
         System.out.println("\n--- All Students ---");
-        List<Student> students = studentService.getAllStudents();
+        int shown = printPages(studentService, student -> true, student ->
+                System.out.printf("ID: %s, Name: %s, Email: %s, Status: %s, GPA: %.2f%n",
+                        student.getId(), student.getFullName(), student.getEmail(),
+                        student.isActive() ? "Active" : "Inactive", student.calculateGPA()));
 
-        if (students.isEmpty()) {
+        if (shown == 0) {
             System.out.println("No students found.");
             return;
         }
+        System.out.println("Students shown: " + shown);
+    }
 
-        for (Student student : students) {
-            System.out.printf("ID: %s, Name: %s, Email: %s, Status: %s, GPA: %.2f%n",
-                    student.getId(), student.getFullName(), student.getEmail(),
-                    student.isActive() ? "Active" : "Inactive", student.calculateGPA());
+    // Prints the matching records one page at a time in id order, asking before each further page
+    private <T> int printPages(Searchable<T> source, Predicate<T> filter, Consumer<T> printer) {
+        int shown = 0;
+        String cursor = null;
+        while (true) {
+            Page<T> page = source.page(cursor, LIST_PAGE_SIZE, filter);
+            for (T item : page.getItems()) {
+                printer.accept(item);
+                shown++;
+            }
+            if (!page.hasNext()
+                    || getStringInput("-- Enter for the next page, q to stop: ").equalsIgnoreCase("q")) {
+                return shown;
+            }
+            cursor = page.getNextCursor();
         }
-        System.out.println("Total students: " + students.size());
     }
 
     private void searchStudentByName() {
@@ -198,6 +252,38 @@ public class CLIInterface {
         }
     }
 
+    private void findStudents() {
+        System.out.println("\n--- Find Students ---");
+        double minGpa = getDoubleInput("Minimum GPA (0 for any): ");
+        double maxGpa = getDoubleInput("Maximum GPA (10 for any): ");
+        boolean activeOnly = getStringInput("Active students only? (y/n): ").equalsIgnoreCase("y");
+        String prefix = getStringInput("Name starts with (leave blank for any): ");
+        int limit = getIntInput("Maximum results (0 for all): ");
+
+        Condition<Student> where = StudentFields.GPA.between(minGpa, maxGpa);
+        if (activeOnly) where = Condition.and(where, StudentFields.ACTIVE.eq(true));
+        if (!prefix.isEmpty()) where = Condition.and(where, StudentFields.NAME.startsWith(prefix));
+
+        Query.Builder<Student> builder = new Query.Builder<Student>()
+                .where(where)
+                .orderBy(StudentFields.GPA, true);
+        if (limit > 0) builder.limit(limit);
+        Query<Student> query = builder.build();
+
+        System.out.println(studentService.explain(query));
+        List<Student> results = studentService.query(query);
+        if (results.isEmpty()) {
+            System.out.println("No students found.");
+            return;
+        }
+        for (Student student : results) {
+            System.out.printf("ID: %s, Name: %s, Status: %s, GPA: %.2f%n",
+                    student.getId(), student.getFullName(),
+                    student.isActive() ? "Active" : "Inactive", student.calculateGPA());
+        }
+        System.out.println("Found " + results.size() + " student(s)");
+    }
+
     private void updateStudent() {
         System.out.println("\n--- Update Student ---");
         String id = getStringInput("Enter student ID to update: ");
@@ -213,8 +299,9 @@ public class CLIInterface {
         String fullName = getStringInput("New full name (or press Enter to keep current): ");
         String email = getStringInput("New email (or press Enter to keep current): ");
 
-        if (!fullName.isEmpty()) student.setFullName(fullName);
-        if (!email.isEmpty()) student.setEmail(email);
+        studentService.updateStudent(id,
+                fullName.isEmpty() ? student.getFullName() : fullName,
+                email.isEmpty() ? student.getEmail() : email);
 
         System.out.println("✓ Student updated successfully!");
     }
@@ -337,29 +424,14 @@ public class CLIInterface {
 
     private void listAllCourses() {
         System.out.println("\n--- All Courses ---");
-        List<Course> courses = courseService.getAllCourses();
+        int[] count = {0};
+        int shown = printPages(courseService, Course::isActive, course ->
+                System.out.printf("%d. %s - %s (%d credits, %s)%n",
+                        ++count[0], course.getCode(), course.getTitle(),
+                        course.getCredits(), course.getDepartment()));
 
-        if (courses.isEmpty()) {
+        if (shown == 0) {
             System.out.println("No courses found.");
-            return;
-        }
-
-        int count = 0;
-        for (int i = 0; i < courses.size(); i++) {
-            Course course = courses.get(i);
-
-            if (!course.isActive()) {
-                continue;
-            }
-
-            System.out.printf("%d. %s - %s (%d credits, %s)%n",
-                    ++count, course.getCode(), course.getTitle(),
-                    course.getCredits(), course.getDepartment());
-
-            if (count >= 10) {
-                System.out.println("... and " + (courses.size() - i - 1) + " more courses");
-                break;
-            }
         }
     }
 
@@ -415,9 +487,10 @@ public class CLIInterface {
         String creditsStr = getStringInput("New credits (or press Enter to keep current): ");
         String department = getStringInput("New department (or press Enter to keep current): ");
 
-        if (!title.isEmpty()) course.setTitle(title);
-        if (!creditsStr.isEmpty()) course.setCredits(Integer.parseInt(creditsStr));
-        if (!department.isEmpty()) course.setDepartment(department);
+        courseService.updateCourse(code,
+                title.isEmpty() ? course.getTitle() : title,
+                creditsStr.isEmpty() ? course.getCredits() : Integer.parseInt(creditsStr),
+                department.isEmpty() ? course.getDepartment() : department);
 
         System.out.println("✓ Course updated successfully!");
     }
@@ -590,10 +663,24 @@ public class CLIInterface {
             return;
         }
 
-        double average = enrollmentService.getCourseAverage(course);
+        GradeStatistics.Summary stats = course.getGradeStatistics().summary();
         System.out.printf("Course: %s - %s%n", course.getCode(), course.getTitle());
-        System.out.printf("Average Marks: %.2f%n", average);
-        System.out.printf("Letter Grade Equivalent: %s%n", Grade.fromScore(average));
+        System.out.printf("Graded Enrollments: %d%n", stats.getCount());
+        System.out.printf("Average Marks: %.2f%n", stats.getAverage());
+        System.out.printf("Letter Grade Equivalent: %s%n", Grade.fromScore(stats.getAverage()));
+        if (stats.getCount() == 0) return;
+
+        System.out.printf("Min / Max Marks: %.2f / %.2f%n", stats.getMin(), stats.getMax());
+        System.out.printf("Standard Deviation: %.2f%n", stats.getStandardDeviation());
+        System.out.println("Grade Distribution:");
+        for (Grade grade : Grade.values()) {
+            System.out.printf("  %-2s %5d%n", grade, stats.getGradeCount(grade));
+        }
+    }
+
+    private java.util.function.Predicate<Student> transcriptFilter() {
+        String answer = getStringInput("Active students only? (y/n): ");
+        return answer.equalsIgnoreCase("y") ? Student::isActive : student -> true;
     }
 
     private void importExportData() {
@@ -607,6 +694,10 @@ public class CLIInterface {
             System.out.println("2. Export Courses to CSV");
             System.out.println("3. Import Students from CSV");
             System.out.println("4. Import Courses from CSV");
+            System.out.println("5. Export Dean's List to CSV");
+            System.out.println("6. Export Transcripts (one file per student)");
+            System.out.println("7. Export Transcripts (single file)");
+            System.out.println("8. Export Grade Distribution to CSV");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -625,6 +716,19 @@ public class CLIInterface {
                     case 4:
                         importExportService.importCoursesFromCSV("test-data/courses.csv");
                         break;
+                    case 5:
+                        double minGpa = getDoubleInput("Minimum GPA (e.g., 9.0): ");
+                        importExportService.exportDeansListToCSV("deans_list_export.csv", minGpa);
+                        break;
+                    case 6:
+                        transcriptGenerator.exportToDirectory("transcripts", transcriptFilter());
+                        break;
+                    case 7:
+                        transcriptGenerator.exportCombined("transcripts_export.txt", transcriptFilter());
+                        break;
+                    case 8:
+                        importExportService.exportGradeDistributionToCSV("grade_distribution_export.csv");
+                        break;
                     case 0:
                         backToMain = true;
                         break;
@@ -645,9 +749,13 @@ public class CLIInterface {
             System.out.println("BACKUP OPERATIONS");
             System.out.println("=".repeat(40));
             System.out.println("1. Create Backup");
-            System.out.println("2. Show Backup Size (Recursive)");
-            System.out.println("3. List Backup Files (Recursive)");
+            System.out.println("2. Show Backup Size");
+            System.out.println("3. List Backups");
             System.out.println("4. Restore from Latest Backup");
+            System.out.println("5. Save Binary Snapshot");
+            System.out.println("6. Load Binary Snapshot");
+            System.out.println("7. Create Full Backup");
+            System.out.println("8. Apply Retention Policy");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -666,7 +774,19 @@ public class CLIInterface {
                         backupService.listBackupFiles();
                         break;
                     case 4:
-                        backupService.restoreFromLatestBackup();
+                        restoreBackup();
+                        break;
+                    case 5:
+                        saveSnapshot();
+                        break;
+                    case 6:
+                        loadSnapshot();
+                        break;
+                    case 7:
+                        backupService.createFullBackup();
+                        break;
+                    case 8:
+                        backupService.applyRetentionPolicy();
                         break;
                     case 0:
                         backToMain = true;
@@ -680,6 +800,52 @@ public class CLIInterface {
         }
     }
 
+    private void saveSnapshot() throws DataExportException {
+        String file = AppConfig.getInstance().getSnapshotFilePath().toString();
+        try {
+            if (!snapshotService.validateData()) {
+                System.out.println("Warning: data failed validation; saving anyway.");
+            }
+            long start = System.nanoTime();
+            if (recoveryService.isJournaling()) {
+                // Saving the recovery snapshot also drops the journal records it covers
+                recoveryService.checkpoint();
+            } else {
+                snapshotService.saveToFile(file);
+            }
+            System.out.printf("✓ Snapshot saved to %s in %.2fs%n", file, (System.nanoTime() - start) / 1e9);
+        } catch (java.io.IOException e) {
+            throw new DataExportException("Snapshot save failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void restoreBackup() throws DataExportException {
+        backupService.restoreFromLatestBackup();
+        if (recoveryService.isJournaling()) {
+            try {
+                // Journal records describe the state that was just replaced
+                recoveryService.checkpoint();
+            } catch (java.io.IOException e) {
+                throw new DataExportException("Checkpoint after restore failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void loadSnapshot() throws DataExportException {
+        String file = AppConfig.getInstance().getSnapshotFilePath().toString();
+        try {
+            long start = System.nanoTime();
+            SnapshotService.Header header = snapshotService.loadFromFile(file);
+            if (recoveryService.isJournaling()) {
+                // Journal records describe the state that was just replaced
+                recoveryService.checkpoint();
+            }
+            System.out.printf("✓ Loaded %s in %.2fs%n", header, (System.nanoTime() - start) / 1e9);
+        } catch (java.io.IOException e) {
+            throw new DataExportException("Snapshot load failed: " + e.getMessage(), e);
+        }
+    }
+
     private void generateReports() {
         boolean backToMain = false;
 
@@ -690,6 +856,8 @@ public class CLIInterface {
             System.out.println("1. Top Students by GPA");
             System.out.println("2. GPA Distribution");
             System.out.println("3. Course Enrollment Summary");
+            System.out.println("4. Department Totals");
+            System.out.println("5. Audit Running Totals");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter your choice: ");
@@ -704,6 +872,12 @@ public class CLIInterface {
                 case 3:
                     showCourseEnrollmentSummary();
                     break;
+                case 4:
+                    showDepartmentTotals();
+                    break;
+                case 5:
+                    showTotalsAudit();
+                    break;
                 case 0:
                     backToMain = true;
                     break;
@@ -731,32 +905,34 @@ public class CLIInterface {
     private void showGpaDistribution() {
         System.out.println("\n--- GPA Distribution ---");
 
-        studentService.getAllStudents().stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        s -> {
-                            double gpa = s.calculateGPA();
-                            if (gpa >= 9.0) return "A (9.0+)";
-                            else if (gpa >= 8.0) return "B (8.0-8.9)";
-                            else if (gpa >= 7.0) return "C (7.0-7.9)";
-                            else if (gpa > 0) return "D (Below 7.0)";
-                            else return "U (Ungraded)";
-                        },
-                        java.util.stream.Collectors.counting()
-                ))
-                .forEach((category, count) ->
-                        System.out.println(category + ": " + count + " students"));
+        reportAnalytics.getGpaDistribution().forEach((band, count) ->
+                System.out.println(band.getLabel() + ": " + count + " students"));
     }
 
     private void showCourseEnrollmentSummary() {
         System.out.println("\n--- Course Enrollment Summary ---");
 
-        courseService.getAllCourses().stream()
-                .filter(Course::isActive)
-                .forEach(course -> {
-                    int enrollmentCount = enrollmentService.getEnrollmentsByCourse(course).size();
-                    System.out.printf("%s: %d students enrolled%n",
-                            course.getTitle(), enrollmentCount);
-                });
+        reportAnalytics.getCourseEnrollmentCounts(true).forEach((course, enrollmentCount) ->
+                System.out.printf("%s: %d students enrolled%n", course.getTitle(), enrollmentCount));
+    }
+
+    private void showDepartmentTotals() {
+        System.out.println("\n--- Department Totals ---");
+
+        reportAnalytics.getDepartmentTotals().forEach((department, totals) ->
+                System.out.printf("%s: %d courses (%d active), %d enrollments, %d credit hours%n",
+                        department, totals.getCourses(), totals.getActiveCourses(),
+                        totals.getEnrollments(), totals.getCreditHours()));
+    }
+
+    private void showTotalsAudit() {
+        System.out.println("\n--- Audit Running Totals ---");
+        ReportAnalytics.TotalsAudit audit = reportAnalytics.auditRunningTotals();
+        if (audit == null) {
+            System.out.println("Enrollments are stored as objects; start with -Dccrm.storage.mode=compact|direct|mapped to audit them.");
+        } else {
+            System.out.println(audit);
+        }
     }
 
     private void displayJavaInfo() {
@@ -43,9 +43,75 @@ public class AppConfig {
         return dataDirectory.resolve(filename);
     }
 
+    public Path getSnapshotFilePath() {
+        return dataDirectory.resolve("ccrm.snapshot");
+    }
+
+    public Path getJournalFilePath() {
+        return dataDirectory.resolve("ccrm.journal");
+    }
+
+    // Journal settings, overridable with -Dccrm.journal=false, -Dccrm.journal.fsync=always|group|never
+    // and -Dccrm.journal.flushMillis=<n>
+    public boolean isJournalEnabled() {
+        return Boolean.parseBoolean(System.getProperty("ccrm.journal", "true"));
+    }
+
+    public String getJournalFsyncPolicy() {
+        return System.getProperty("ccrm.journal.fsync", "group");
+    }
+
+    public long getJournalFlushMillis() {
+        return Long.getLong("ccrm.journal.flushMillis", 20L);
+    }
+
+    // Incremental backups allowed between two full backups, -Dccrm.backup.fullEvery=<n>
+    public int getFullBackupInterval() {
+        return Integer.getInteger("ccrm.backup.fullEvery", 6);
+    }
+
+    // "directory" writes CSV folders, "archive" one compressed file per backup, -Dccrm.backup.format=<format>
+    public String getBackupFormat() {
+        return System.getProperty("ccrm.backup.format", "directory");
+    }
+
+    // Backups kept by retention: the newest n, then the newest of each recent hour, day and week.
+    // -Dccrm.backup.keep.last|hourly|daily|weekly=<n>
+    public int getBackupKeepLast() {
+        return Integer.getInteger("ccrm.backup.keep.last", 3);
+    }
+
+    public int getBackupKeepHourly() {
+        return Integer.getInteger("ccrm.backup.keep.hourly", 24);
+    }
+
+    public int getBackupKeepDaily() {
+        return Integer.getInteger("ccrm.backup.keep.daily", 7);
+    }
+
+    public int getBackupKeepWeekly() {
+        return Integer.getInteger("ccrm.backup.keep.weekly", 4);
+    }
+
+    // Minutes between background retention runs, 0 disables them, -Dccrm.backup.maintenanceMinutes=<n>
+    public long getBackupMaintenanceMinutes() {
+        return Long.getLong("ccrm.backup.maintenanceMinutes", 60L);
+    }
+
+    // Where enrollment data is kept: objects, compact, direct or mapped, -Dccrm.storage.mode=<mode>
+    public String getStorageMode() {
+        return System.getProperty("ccrm.storage.mode", "objects");
+    }
+
+    // Files behind mapped enrollment slabs, -Dccrm.storage.slabDir=<path>
+    public Path getSlabDirectory() {
+        String slabDir = System.getProperty("ccrm.storage.slabDir");
+        return slabDir != null ? Paths.get(slabDir) : dataDirectory.resolve("slabs");
+    }
+
     public Path getBackupFilePath() {
         String timestamp = java.time.LocalDateTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+                java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
         return backupDirectory.resolve("backup_" + timestamp);
     }
 }
\ No newline at end of file
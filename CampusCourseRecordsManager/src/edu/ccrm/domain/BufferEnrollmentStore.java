@@ -0,0 +1,139 @@
+package edu.ccrm.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// CompactEnrollmentStore over native-order ByteBuffers outside the Java heap. Each slab is one
+// buffer with the student, course, marks, epoch day and credits columns back to back, followed by
+// the grade bytes. DIRECT slabs are direct buffers; MAPPED slabs are each mapped from their own
+// file in the slab directory, which is deleted as soon as the mapping exists, so the OS can page
+// rows out under memory pressure. Java cannot free a buffer explicitly: a slab's memory goes back
+// once the store holding it is unreachable.
+final class BufferEnrollmentStore extends CompactEnrollmentStore {
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle FLOATS = MethodHandles.byteBufferViewVarHandle(float[].class, ByteOrder.nativeOrder());
+    private static final int STUDENTS = 0;
+    private static final int COURSES = SLAB_ROWS * 4;
+    private static final int MARKS = SLAB_ROWS * 8;
+    private static final int EPOCH_DAYS = SLAB_ROWS * 12;
+    private static final int CREDITS = SLAB_ROWS * 16;
+    private static final int GRADES = SLAB_ROWS * 20;
+
+    private final Path slabDirectory;  // MAPPED only; null uses the temporary-file directory
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+
+    BufferEnrollmentStore(StorageMode mode, Path slabDirectory) {
+        super(mode);
+        this.slabDirectory = slabDirectory;
+    }
+
+    @Override
+    int slabCount() {
+        return slabs.length;
+    }
+
+    // Called under the store lock
+    @Override
+    void addSlab() {
+        ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+        ByteBuffer slab = getStorageMode() == StorageMode.MAPPED
+                ? mapSlab() : ByteBuffer.allocateDirect(SLAB_ROWS * ROW_BYTES);
+        grown[grown.length - 1] = slab.order(ByteOrder.nativeOrder());
+        slabs = grown;
+    }
+
+    @Override
+    int studentAt(int row) {
+        return (int) INTS.getAcquire(slab(row), STUDENTS + offset(row, 4));
+    }
+
+    @Override
+    int courseAt(int row) {
+        return (int) INTS.getAcquire(slab(row), COURSES + offset(row, 4));
+    }
+
+    @Override
+    float marksAt(int row) {
+        return (float) FLOATS.getAcquire(slab(row), MARKS + offset(row, 4));
+    }
+
+    @Override
+    byte gradeAt(int row) {
+        return slab(row).get(GRADES + offset(row, 1));
+    }
+
+    @Override
+    int epochDayAt(int row) {
+        return (int) INTS.getAcquire(slab(row), EPOCH_DAYS + offset(row, 4));
+    }
+
+    @Override
+    int creditsAt(int row) {
+        return (int) INTS.getAcquire(slab(row), CREDITS + offset(row, 4));
+    }
+
+    @Override
+    void writeRow(int row, int student, int course, float marks, byte grade, int epochDay, int credits) {
+        ByteBuffer slab = slab(row);
+        int i = offset(row, 4);
+        INTS.setRelease(slab, COURSES + i, course);
+        slab.put(GRADES + offset(row, 1), grade);
+        FLOATS.setRelease(slab, MARKS + i, marks);
+        INTS.setRelease(slab, EPOCH_DAYS + i, epochDay);
+        INTS.setRelease(slab, CREDITS + i, credits);
+        INTS.setRelease(slab, STUDENTS + i, student);
+    }
+
+    @Override
+    void writeMarks(int row, float marks, byte grade) {
+        ByteBuffer slab = slab(row);
+        slab.put(GRADES + offset(row, 1), grade);
+        FLOATS.setRelease(slab, MARKS + offset(row, 4), marks);
+    }
+
+    @Override
+    void writeCredits(int row, int credits) {
+        INTS.setRelease(slab(row), CREDITS + offset(row, 4), credits);
+    }
+
+    @Override
+    void clearRow(int row) {
+        INTS.setRelease(slab(row), STUDENTS + offset(row, 4), FREE);
+    }
+
+    private ByteBuffer slab(int row) {
+        return slabs[row >>> SLAB_SHIFT];
+    }
+
+    private static int offset(int row, int width) {
+        return (row & SLAB_MASK) * width;
+    }
+
+    // The mapping stays valid after the channel is closed, and DELETE_ON_CLOSE removes the file then
+    private ByteBuffer mapSlab() {
+        try {
+            Path file;
+            if (slabDirectory != null) {
+                Files.createDirectories(slabDirectory);
+                file = Files.createTempFile(slabDirectory, "slab-", ".bin");
+            } else {
+                file = Files.createTempFile("ccrm-slab-", ".bin");
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLAB_ROWS * ROW_BYTES);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map enrollment slab: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package edu.ccrm.domain;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Column storage for the enrollments of one data set. Each row holds a student ordinal, a course
+// ordinal, float marks, a byte grade ordinal, an epoch day and the counted credits: 21 bytes, in
+// slabs of 64K rows that never move once allocated. Students and courses get dense ordinals
+// from dictionaries kept here. Registered enrollments are flyweight views over their rows.
+// Freed rows are reused. A released Enrollment has already switched to its own record, and views
+// re-check that after every read, so a reused row is never reported as theirs. Column values a
+// view reads are written with release and read with acquire semantics for that check.
+// The aggregations are single loops over the columns and weakly consistent with concurrent writes.
+public abstract class CompactEnrollmentStore extends EnrollmentRecords {
+    static final int SLAB_SHIFT = 16;
+    static final int SLAB_ROWS = 1 << SLAB_SHIFT;
+    static final int SLAB_MASK = SLAB_ROWS - 1;
+    static final int ROW_BYTES = 21;
+    static final int FREE = -1;  // Student ordinal of an unused row
+    private static final Grade[] GRADES = Grade.values();
+
+    private final StorageMode mode;
+    private volatile int highWater;  // Rows handed out so far; written under this
+    private int[] freeRows = new int[64];
+    private int freeCount;
+    private volatile int size;
+    private volatile Student[] students = new Student[64];
+    private volatile int studentCount;
+    private volatile Course[] courses = new Course[64];
+    private volatile int courseCount;
+
+    CompactEnrollmentStore(StorageMode mode) {
+        this.mode = mode;
+    }
+
+    // slabDirectory holds the files behind MAPPED slabs; null uses the temporary-file directory
+    public static CompactEnrollmentStore create(StorageMode mode, Path slabDirectory) {
+        switch (mode) {
+            case COMPACT:
+                return new HeapEnrollmentStore();
+            case DIRECT:
+            case MAPPED:
+                return new BufferEnrollmentStore(mode, slabDirectory);
+            default:
+                throw new IllegalArgumentException(mode + " storage does not use a compact store");
+        }
+    }
+
+    // Column access, by row; slabs are allocated on demand and stay in place
+    abstract int slabCount();
+    abstract void addSlab();
+    abstract int studentAt(int row);     // Acquire
+    abstract int courseAt(int row);      // Acquire
+    abstract float marksAt(int row);     // Acquire
+    abstract byte gradeAt(int row);
+    abstract int epochDayAt(int row);    // Acquire
+    abstract int creditsAt(int row);     // Acquire
+    // Writes every column; the student ordinal last, with release semantics
+    abstract void writeRow(int row, int student, int course, float marks, byte grade, int epochDay, int credits);
+    abstract void writeMarks(int row, float marks, byte grade);  // Release
+    abstract void writeCredits(int row, int credits);            // Release
+    abstract void clearRow(int row);                             // Student ordinal to FREE, release
+
+    // Copies one enrollment into a free row and returns the row
+    synchronized int allocate(Student student, Course course, int epochDay, double marks, int countedCredits) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            row = highWater;
+            if (row == slabCount() << SLAB_SHIFT) addSlab();
+        }
+        float stored = (float) marks;
+        writeRow(row, studentOrdinal(student), courseOrdinal(course), stored, gradeOrdinal(stored), epochDay,
+                countedCredits);
+        if (row == highWater) highWater = row + 1;
+        size++;
+        return row;
+    }
+
+    synchronized void free(int row) {
+        clearRow(row);
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        freeRows[freeCount++] = row;
+        size--;
+    }
+
+    @Override
+    Student getStudent(int row) {
+        int ordinal = studentAt(row);
+        return ordinal == FREE ? null : students[ordinal];
+    }
+
+    @Override
+    Course getCourse(int row) {
+        int ordinal = courseAt(row);
+        return ordinal < 0 ? null : courses[ordinal];
+    }
+
+    @Override int getEpochDay(int row) { return epochDayAt(row); }
+    @Override double getMarks(int row) { return marksAt(row); }
+    @Override int getCountedCredits(int row) { return creditsAt(row); }
+
+    // Marks are kept as floats
+    @Override
+    double setMarks(int row, double marks) {
+        float stored = (float) marks;
+        writeMarks(row, stored, gradeOrdinal(stored));
+        return stored;
+    }
+
+    @Override
+    void setCountedCredits(int row, int credits) {
+        writeCredits(row, credits);
+    }
+
+    // GPA per student ordinal over the rows attached to GPA totals, weighted by counted credits
+    public double[] computeGpas() {
+        int studentTotal = studentCount;
+        double[] points = new double[studentTotal];
+        long[] credits = new long[studentTotal];
+        double[] gradePoints = new double[GRADES.length];
+        for (int grade = 0; grade < GRADES.length; grade++) gradePoints[grade] = GRADES[grade].getGradePoints();
+
+        int rows = highWater;
+        for (int row = 0; row < rows; row++) {
+            int student = studentAt(row);
+            int grade = gradeAt(row);
+            int counted = creditsAt(row);
+            if (student < 0 || student >= studentTotal || grade < 0 || counted < 0) continue;
+            points[student] += gradePoints[grade] * counted;
+            credits[student] += counted;
+        }
+
+        double[] gpas = new double[studentTotal];
+        for (int student = 0; student < studentTotal; student++) {
+            gpas[student] = credits[student] > 0 ? points[student] / credits[student] : 0.0;
+        }
+        return gpas;
+    }
+
+    // Average marks per course ordinal over graded rows
+    public double[] computeCourseAverages() {
+        int courseTotal = courseCount;
+        double[] sums = new double[courseTotal];
+        long[] counts = new long[courseTotal];
+
+        int rows = highWater;
+        for (int row = 0; row < rows; row++) {
+            if (studentAt(row) == FREE) continue;
+            int course = courseAt(row);
+            float marks = marksAt(row);
+            if (course < 0 || course >= courseTotal || marks < 0) continue;
+            sums[course] += marks;
+            counts[course]++;
+        }
+
+        double[] averages = new double[courseTotal];
+        for (int course = 0; course < courseTotal; course++) {
+            averages[course] = counts[course] > 0 ? sums[course] / counts[course] : 0.0;
+        }
+        return averages;
+    }
+
+    public StorageMode getStorageMode() { return mode; }
+    public int size() { return size; }
+    public int getStudentCount() { return studentCount; }
+    public int getCourseCount() { return courseCount; }
+    public Student getStudentByOrdinal(int ordinal) { return students[ordinal]; }
+    public Course getCourseByOrdinal(int ordinal) { return courses[ordinal]; }
+
+    // Bytes held by the column slabs
+    public long getColumnBytes() {
+        return (long) slabCount() * SLAB_ROWS * ROW_BYTES;
+    }
+
+    // Count is published after the entry; readers read the count first, then the array
+    private int studentOrdinal(Student student) {
+        int ordinal = student.storeOrdinal;
+        Student[] known = students;
+        if (ordinal >= 0 && ordinal < studentCount && known[ordinal] == student) return ordinal;
+        ordinal = studentCount;
+        if (ordinal == known.length) students = known = Arrays.copyOf(known, ordinal * 2);
+        known[ordinal] = student;
+        student.storeOrdinal = ordinal;
+        studentCount = ordinal + 1;
+        return ordinal;
+    }
+
+    private int courseOrdinal(Course course) {
+        int ordinal = course.storeOrdinal;
+        Course[] known = courses;
+        if (ordinal >= 0 && ordinal < courseCount && known[ordinal] == course) return ordinal;
+        ordinal = courseCount;
+        if (ordinal == known.length) courses = known = Arrays.copyOf(known, ordinal * 2);
+        known[ordinal] = course;
+        course.storeOrdinal = ordinal;
+        courseCount = ordinal + 1;
+        return ordinal;
+    }
+
+    private static byte gradeOrdinal(float marks) {
+        return marks < 0 ? -1 : (byte) Grade.fromScore(marks).ordinal();
+    }
+}
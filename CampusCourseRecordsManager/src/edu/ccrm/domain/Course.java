@@ -1,15 +1,23 @@
 package edu.ccrm.domain;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Course {
     private final String code;  // Immutable field
     private String title;
-    private int credits;
+    private volatile int credits;
     private Instructor instructor;
     private Semester semester;
     private String department;
     private boolean active;
+    private final Set<Enrollment> enrollments = ConcurrentHashMap.newKeySet();  // Attached enrollments (course roster)
+    private final GradeStatistics gradeStatistics = new GradeStatistics();      // Over the graded part of the roster
+    private volatile CourseChangeListener changeListener;
+    int storeOrdinal = -1;  // Dictionary ordinal in the CompactEnrollmentStore holding this course's rows
 
     // Private constructor for Builder
     private Course(Builder builder) {
@@ -18,7 +26,7 @@ public class Course {
         this.credits = builder.credits;
         this.instructor = builder.instructor;
         this.semester = builder.semester;
-        this.department = builder.department;
+        this.department = SymbolTable.getInstance().intern(builder.department);
         this.active = true;
     }
 
@@ -70,15 +78,63 @@ public class Course {
     public Semester getSemester() { return semester; }
     public String getDepartment() { return department; }
     public boolean isActive() { return active; }
+    public Collection<Enrollment> getEnrollments() { return Collections.unmodifiableSet(enrollments); }
+    public int getEnrollmentCount() { return enrollments.size(); }
+    public GradeStatistics getGradeStatistics() { return gradeStatistics; }
 
     // Setters (only for mutable fields)
     public void setTitle(String title) { this.title = title; }
-    public void setCredits(int credits) { this.credits = credits; }
-    public void setInstructor(Instructor instructor) { this.instructor = instructor; }
-    public void setSemester(Semester semester) { this.semester = semester; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setCredits(int credits) {
+        this.credits = credits;
+        // Keep enrolled students' GPA totals in step with the new credit value
+        for (Enrollment enrollment : enrollments) {
+            enrollment.getStudent().onCreditsChanged(enrollment, credits);
+        }
+    }
+    public void setInstructor(Instructor instructor) {
+        Instructor oldInstructor = this.instructor;
+        this.instructor = instructor;
+        if (changeListener != null && !Objects.equals(oldInstructor, instructor)) {
+            changeListener.instructorChanged(this, oldInstructor);
+        }
+    }
+
+    public void setSemester(Semester semester) {
+        Semester oldSemester = this.semester;
+        this.semester = semester;
+        if (changeListener != null && oldSemester != semester) {
+            changeListener.semesterChanged(this, oldSemester);
+        }
+    }
+
+    public void setDepartment(String department) {
+        String oldDepartment = this.department;
+        this.department = SymbolTable.getInstance().intern(department);
+        if (changeListener != null && !Objects.equals(oldDepartment, department)) {
+            changeListener.departmentChanged(this, oldDepartment);
+        }
+    }
+
+    public void setChangeListener(CourseChangeListener changeListener) { this.changeListener = changeListener; }
     public void setActive(boolean active) { this.active = active; }
 
+    // Roster and grade statistics change together, under the enrolled student's lock
+    void attachEnrollment(Enrollment enrollment) {
+        if (enrollments.add(enrollment) && enrollment.isGraded()) {
+            gradeStatistics.add(enrollment.getMarks());
+        }
+    }
+
+    void detachEnrollment(Enrollment enrollment) {
+        if (enrollments.remove(enrollment) && enrollment.isGraded()) {
+            gradeStatistics.remove(enrollment.getMarks());
+        }
+    }
+
+    void onMarksChanged(double oldMarks, double newMarks) {
+        gradeStatistics.replace(oldMarks, newMarks);
+    }
+
     @Override
     public String toString() {
         return String.format("Course[Code: %s, Title: %s, Credits: %d, Department: %s]",
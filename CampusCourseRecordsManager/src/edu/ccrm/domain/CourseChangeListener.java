@@ -0,0 +1,10 @@
+package edu.ccrm.domain;
+
+// Notified by Course when an indexed attribute changes
+public interface CourseChangeListener {
+    default void departmentChanged(Course course, String oldDepartment) {}
+
+    default void semesterChanged(Course course, Semester oldSemester) {}
+
+    default void instructorChanged(Course course, Instructor oldInstructor) {}
+}
@@ -3,44 +3,134 @@ package edu.ccrm.domain;
 import java.time.LocalDate;
 import java.util.Objects;
 
+// A view over one enrollment's data: its own EnrollmentRecord, or a row of the compact store it is
+// registered in. Every read re-checks that the view still points where it read from, because a
+// store reuses the row of an enrollment that has been moved out.
 public class Enrollment {
-    private Student student;
-    private Course course;
-    private Grade grade;
-    private LocalDate enrollmentDate;
-    private double marks;
+    private volatile EnrollmentRecords records;
+    private int row;  // Row in records; written before records is published
 
     public Enrollment(Student student, Course course) {
-        this.student = Objects.requireNonNull(student);
-        this.course = Objects.requireNonNull(course);
-        this.enrollmentDate = LocalDate.now();
-        this.marks = -1; // Not graded yet
+        this(student, course, LocalDate.now());
+    }
+
+    // Used when restoring saved enrollments with their original date
+    public Enrollment(Student student, Course course, LocalDate enrollmentDate) {
+        this.records = new EnrollmentRecord(Objects.requireNonNull(student), Objects.requireNonNull(course),
+                Math.toIntExact(Objects.requireNonNull(enrollmentDate).toEpochDay()), -1, -1); // Not graded yet
     }
 
     public void recordMarks(double marks) {
         if (marks < 0 || marks > 100) {
             throw new IllegalArgumentException("Marks must be between 0 and 100");
         }
-        this.marks = marks;
-        this.grade = Grade.fromScore(marks);
+        Student student = getStudent();
+        // Serialized with the student's other GPA updates
+        synchronized (student) {
+            EnrollmentRecords records = this.records;
+            double oldMarks = records.getMarks(row);
+            double newMarks = records.setMarks(row, marks);
+
+            if (isAttached()) {
+                getCourse().onMarksChanged(oldMarks, newMarks);
+                student.onGradeChanged(this, gradeOf(oldMarks));
+            }
+        }
+    }
+
+    // Moves this enrollment's data into a row of the store. Called by EnrollmentService before the
+    // enrollment is attached, so the student's and course's totals see the marks as stored.
+    public void moveTo(CompactEnrollmentStore store) {
+        Student student = getStudent();
+        synchronized (student) {
+            EnrollmentRecords current = records;
+            if (current instanceof CompactEnrollmentStore) {
+                throw new IllegalStateException("Enrollment is already held by a compact store");
+            }
+            row = store.allocate(student, current.getCourse(0), current.getEpochDay(0), current.getMarks(0),
+                    current.getCountedCredits(0));
+            records = store;
+        }
+    }
+
+    // Copies this enrollment's data back into its own record and frees its store row. Called by
+    // EnrollmentService once the enrollment has been removed.
+    public void release() {
+        Student student = getStudent();
+        synchronized (student) {
+            EnrollmentRecords current = records;
+            if (!(current instanceof CompactEnrollmentStore)) return;
+            int oldRow = row;
+            records = new EnrollmentRecord(student, current.getCourse(oldRow), current.getEpochDay(oldRow),
+                    current.getMarks(oldRow), current.getCountedCredits(oldRow));
+            ((CompactEnrollmentStore) current).free(oldRow);
+        }
+    }
+
+    // Attachment bookkeeping, driven by Student.addEnrollment/removeEnrollment
+    void attach(int credits) { records.setCountedCredits(row, credits); }
+    void detach() { records.setCountedCredits(row, -1); }
+    boolean isAttached() { return getCountedCredits() >= 0; }
+
+    // Credits this enrollment contributes to the student's GPA totals; -1 while not attached
+    int getCountedCredits() {
+        while (true) {
+            EnrollmentRecords records = this.records;
+            int credits = records.getCountedCredits(row);
+            if (records == this.records) return credits;
+        }
     }
 
     // Getters
-    public Student getStudent() { return student; }
-    public Course getCourse() { return course; }
-    public Grade getGrade() { return grade; }
-    public LocalDate getEnrollmentDate() { return enrollmentDate; }
-    public double getMarks() { return marks; }
+    public Student getStudent() {
+        while (true) {
+            EnrollmentRecords records = this.records;
+            Student student = records.getStudent(row);
+            if (records == this.records) return student;
+        }
+    }
+
+    public Course getCourse() {
+        while (true) {
+            EnrollmentRecords records = this.records;
+            Course course = records.getCourse(row);
+            if (records == this.records) return course;
+        }
+    }
+
+    public Grade getGrade() { return gradeOf(getMarks()); }
+
+    public LocalDate getEnrollmentDate() {
+        while (true) {
+            EnrollmentRecords records = this.records;
+            int epochDay = records.getEpochDay(row);
+            if (records == this.records) return LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    public double getMarks() {
+        while (true) {
+            EnrollmentRecords records = this.records;
+            double marks = records.getMarks(row);
+            if (records == this.records) return marks;
+        }
+    }
 
     // ADD THIS METHOD - This was missing!
     public boolean isGraded() {
-        return marks >= 0;
+        return getMarks() >= 0;
+    }
+
+    private static Grade gradeOf(double marks) {
+        return marks >= 0 ? Grade.fromScore(marks) : null;
     }
 
     @Override
     public String toString() {
+        double marks = getMarks();
+        Grade grade = gradeOf(marks);
         return String.format("Enrollment[Student: %s, Course: %s, Grade: %s, Marks: %.1f]",
-                student.getFullName(), course.getTitle(),
+                getStudent().getFullName(), getCourse().getTitle(),
                 grade != null ? grade : "Not Graded", marks);
     }
-}
+}
\ No newline at end of file
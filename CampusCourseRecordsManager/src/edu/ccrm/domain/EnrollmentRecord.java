@@ -0,0 +1,37 @@
+package edu.ccrm.domain;
+
+// One enrollment's data as a plain object. New enrollments start with one, enrollments stay on it
+// when no compact store is in use, and a row moved out of a store is copied back into one.
+final class EnrollmentRecord extends EnrollmentRecords {
+    private final Student student;
+    private final Course course;
+    private final int epochDay;
+    private volatile double marks;
+    private volatile int countedCredits;
+
+    EnrollmentRecord(Student student, Course course, int epochDay, double marks, int countedCredits) {
+        this.student = student;
+        this.course = course;
+        this.epochDay = epochDay;
+        this.marks = marks;
+        this.countedCredits = countedCredits;
+    }
+
+    // The row argument is ignored; a record holds a single enrollment
+    @Override Student getStudent(int row) { return student; }
+    @Override Course getCourse(int row) { return course; }
+    @Override int getEpochDay(int row) { return epochDay; }
+    @Override double getMarks(int row) { return marks; }
+    @Override int getCountedCredits(int row) { return countedCredits; }
+
+    @Override
+    double setMarks(int row, double marks) {
+        this.marks = marks;
+        return marks;
+    }
+
+    @Override
+    void setCountedCredits(int row, int credits) {
+        this.countedCredits = credits;
+    }
+}
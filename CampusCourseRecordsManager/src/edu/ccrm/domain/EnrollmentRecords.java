@@ -0,0 +1,19 @@
+package edu.ccrm.domain;
+
+// Where an enrollment's data lives: its own EnrollmentRecord, or a row of a CompactEnrollmentStore.
+// Enrollment is a view over (records, row). Writes happen under the enrolled student's monitor.
+abstract class EnrollmentRecords {
+    abstract Student getStudent(int row);
+    abstract Course getCourse(int row);
+    abstract int getEpochDay(int row);
+
+    // -1 while not graded
+    abstract double getMarks(int row);
+
+    // Stores the marks and returns them as stored, which may be narrowed
+    abstract double setMarks(int row, double marks);
+
+    // -1 while not attached to the student's GPA totals
+    abstract int getCountedCredits(int row);
+    abstract void setCountedCredits(int row, int credits);
+}
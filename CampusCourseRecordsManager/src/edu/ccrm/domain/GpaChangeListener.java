@@ -0,0 +1,7 @@
+package edu.ccrm.domain;
+
+// Notified by Student whenever its maintained GPA changes
+@FunctionalInterface
+public interface GpaChangeListener {
+    void gpaChanged(Student student, double oldGpa, double newGpa);
+}
@@ -0,0 +1,85 @@
+package edu.ccrm.domain;
+
+import java.util.TreeMap;
+
+// Running statistics over the marks of a course's graded enrollments, updated as marks are
+// recorded, replaced or detached. Count, sums and the grade histogram change in O(1); min and
+// max come from a multiset of distinct marks, O(log distinct marks).
+public class GradeStatistics {
+    private long count;
+    private double sum;
+    private double sumOfSquares;
+    private final long[] gradeCounts = new long[Grade.values().length];
+    private final TreeMap<Double, Integer> marks = new TreeMap<>();
+
+    synchronized void add(double mark) {
+        count++;
+        sum += mark;
+        sumOfSquares += mark * mark;
+        gradeCounts[Grade.fromScore(mark).ordinal()]++;
+        marks.merge(mark, 1, Integer::sum);
+    }
+
+    synchronized void remove(double mark) {
+        count--;
+        sum -= mark;
+        sumOfSquares -= mark * mark;
+        gradeCounts[Grade.fromScore(mark).ordinal()]--;
+        marks.computeIfPresent(mark, (value, n) -> n > 1 ? n - 1 : null);
+        if (count == 0) {
+            // Clears float residue left by adding and removing marks
+            sum = 0;
+            sumOfSquares = 0;
+        }
+    }
+
+    // A re-grade: the old mark is negative when the enrollment was not graded before
+    synchronized void replace(double oldMark, double newMark) {
+        if (oldMark >= 0) remove(oldMark);
+        add(newMark);
+    }
+
+    // Consistent view of every figure at one instant
+    public synchronized Summary summary() {
+        return new Summary(count, sum, sumOfSquares,
+                marks.isEmpty() ? 0 : marks.firstKey(), marks.isEmpty() ? 0 : marks.lastKey(), gradeCounts.clone());
+    }
+
+    public static final class Summary {
+        private final long count;
+        private final double sum;
+        private final double sumOfSquares;
+        private final double min;
+        private final double max;
+        private final long[] gradeCounts;
+
+        private Summary(long count, double sum, double sumOfSquares, double min, double max, long[] gradeCounts) {
+            this.count = count;
+            this.sum = sum;
+            this.sumOfSquares = sumOfSquares;
+            this.min = min;
+            this.max = max;
+            this.gradeCounts = gradeCounts;
+        }
+
+        public long getCount() { return count; }
+        public double getSum() { return sum; }
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+
+        public double getAverage() {
+            return count > 0 ? sum / count : 0.0;
+        }
+
+        // Population standard deviation
+        public double getStandardDeviation() {
+            if (count == 0) return 0.0;
+            double mean = sum / count;
+            return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+        }
+
+        public long getGradeCount(Grade grade) {
+            return gradeCounts[grade.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package edu.ccrm.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// CompactEnrollmentStore over primitive arrays on the Java heap, one set of column arrays per slab
+final class HeapEnrollmentStore extends CompactEnrollmentStore {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle FLOATS = MethodHandles.arrayElementVarHandle(float[].class);
+
+    private volatile Slab[] slabs = new Slab[0];
+
+    HeapEnrollmentStore() {
+        super(StorageMode.COMPACT);
+    }
+
+    @Override
+    int slabCount() {
+        return slabs.length;
+    }
+
+    // Called under the store lock
+    @Override
+    void addSlab() {
+        Slab[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+        grown[grown.length - 1] = new Slab();
+        slabs = grown;
+    }
+
+    @Override
+    int studentAt(int row) {
+        return (int) INTS.getAcquire(slab(row).students, row & SLAB_MASK);
+    }
+
+    @Override
+    int courseAt(int row) {
+        return (int) INTS.getAcquire(slab(row).courses, row & SLAB_MASK);
+    }
+
+    @Override
+    float marksAt(int row) {
+        return (float) FLOATS.getAcquire(slab(row).marks, row & SLAB_MASK);
+    }
+
+    @Override
+    byte gradeAt(int row) {
+        return slab(row).grades[row & SLAB_MASK];
+    }
+
+    @Override
+    int epochDayAt(int row) {
+        return (int) INTS.getAcquire(slab(row).epochDays, row & SLAB_MASK);
+    }
+
+    @Override
+    int creditsAt(int row) {
+        return (int) INTS.getAcquire(slab(row).credits, row & SLAB_MASK);
+    }
+
+    @Override
+    void writeRow(int row, int student, int course, float marks, byte grade, int epochDay, int credits) {
+        Slab slab = slab(row);
+        int i = row & SLAB_MASK;
+        INTS.setRelease(slab.courses, i, course);
+        slab.grades[i] = grade;
+        FLOATS.setRelease(slab.marks, i, marks);
+        INTS.setRelease(slab.epochDays, i, epochDay);
+        INTS.setRelease(slab.credits, i, credits);
+        INTS.setRelease(slab.students, i, student);
+    }
+
+    @Override
+    void writeMarks(int row, float marks, byte grade) {
+        Slab slab = slab(row);
+        int i = row & SLAB_MASK;
+        slab.grades[i] = grade;
+        FLOATS.setRelease(slab.marks, i, marks);
+    }
+
+    @Override
+    void writeCredits(int row, int credits) {
+        INTS.setRelease(slab(row).credits, row & SLAB_MASK, credits);
+    }
+
+    @Override
+    void clearRow(int row) {
+        INTS.setRelease(slab(row).students, row & SLAB_MASK, FREE);
+    }
+
+    private Slab slab(int row) {
+        return slabs[row >>> SLAB_SHIFT];
+    }
+
+    private static final class Slab {
+        final int[] students = new int[SLAB_ROWS];
+        final int[] courses = new int[SLAB_ROWS];
+        final float[] marks = new float[SLAB_ROWS];
+        final byte[] grades = new byte[SLAB_ROWS];
+        final int[] epochDays = new int[SLAB_ROWS];
+        final int[] credits = new int[SLAB_ROWS];
+    }
+}
@@ -6,7 +6,7 @@ public class Instructor extends Person {
 
     public Instructor(String id, String fullName, String email, String department) {
         super(id, fullName, email);
-        this.department = department;
+        this.department = SymbolTable.getInstance().intern(department);
     }
 
     @Override
@@ -15,7 +15,7 @@ public class Instructor extends Person {
     }
 
     public String getDepartment() { return department; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setDepartment(String department) { this.department = SymbolTable.getInstance().intern(department); }
 
     @Override
     public String toString() {
@@ -30,6 +30,7 @@ public abstract class Person {
     public void setEmail(String email) { this.email = email; }
 
     public LocalDate getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDate createdDate) { this.createdDate = Objects.requireNonNull(createdDate); }
 
     @Override
     public String toString() {
@@ -49,4 +50,4 @@ public abstract class Person {
     public int hashCode() {
         return Objects.hash(id);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package edu.ccrm.domain;
+
+// Where enrollment data is kept
+public enum StorageMode {
+    OBJECTS,  // One EnrollmentRecord object per enrollment
+    COMPACT,  // Rows of primitive column arrays in a CompactEnrollmentStore
+    DIRECT,   // The same rows in direct buffers outside the Java heap
+    MAPPED;   // The same rows in buffers mapped from files in the slab directory
+
+    // Unknown names fall back to OBJECTS
+    public static StorageMode parse(String name) {
+        for (StorageMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) return mode;
+        }
+        return OBJECTS;
+    }
+}
@@ -1,19 +1,26 @@
 package edu.ccrm.domain;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Student extends Person {
     private String regNo;
     private boolean active;
     private List<Enrollment> enrollments;
 
+    // Running GPA totals over graded enrollments, kept in step with grade and credit changes.
+    // Guarded by this student's monitor.
+    private double totalGradePoints;
+    private int totalGradedCredits;
+    private volatile GpaChangeListener gpaListener;
+    int storeOrdinal = -1;  // Dictionary ordinal in the CompactEnrollmentStore holding this student's rows
+
     public Student(String id, String regNo, String fullName, String email) {
         super(id, fullName, email);
         this.regNo = Objects.requireNonNull(regNo);
         this.active = true;
-        this.enrollments = new ArrayList<>();
+        this.enrollments = new CopyOnWriteArrayList<>();
     }
 
     @Override
@@ -30,17 +37,75 @@ public class Student extends Person {
 
     public List<Enrollment> getEnrollments() { return enrollments; }
 
-    public void addEnrollment(Enrollment enrollment) {
+    public void setGpaListener(GpaChangeListener gpaListener) { this.gpaListener = gpaListener; }
+
+    public synchronized void addEnrollment(Enrollment enrollment) {
+        double oldGpa = calculateGPA();
         enrollments.add(enrollment);
+        // Attach to the course before reading its credits so a concurrent setCredits cannot be missed
+        enrollment.getCourse().attachEnrollment(enrollment);
+        enrollment.attach(enrollment.getCourse().getCredits());
+        addToTotals(enrollment.getGrade(), enrollment.getCountedCredits());
+        notifyGpaChange(oldGpa);
+    }
+
+    public synchronized void removeEnrollment(Enrollment enrollment) {
+        double oldGpa = calculateGPA();
+        if (enrollments.remove(enrollment)) {
+            enrollment.getCourse().detachEnrollment(enrollment);
+            removeFromTotals(enrollment.getGrade(), enrollment.getCountedCredits());
+            enrollment.detach();
+            notifyGpaChange(oldGpa);
+        }
+    }
+
+    // Called by Enrollment when marks are recorded or replaced
+    synchronized void onGradeChanged(Enrollment enrollment, Grade oldGrade) {
+        double oldGpa = calculateGPA();
+        removeFromTotals(oldGrade, enrollment.getCountedCredits());
+        addToTotals(enrollment.getGrade(), enrollment.getCountedCredits());
+        notifyGpaChange(oldGpa);
+    }
+
+    // Called by Course when its credit value changes
+    synchronized void onCreditsChanged(Enrollment enrollment, int newCredits) {
+        if (!enrollment.isAttached()) return;
+        double oldGpa = calculateGPA();
+        removeFromTotals(enrollment.getGrade(), enrollment.getCountedCredits());
+        enrollment.attach(newCredits);
+        addToTotals(enrollment.getGrade(), newCredits);
+        notifyGpaChange(oldGpa);
     }
 
-    public void removeEnrollment(Enrollment enrollment) {
-        enrollments.remove(enrollment);
+    private void notifyGpaChange(double oldGpa) {
+        double newGpa = calculateGPA();
+        if (gpaListener != null && Double.compare(oldGpa, newGpa) != 0) {
+            gpaListener.gpaChanged(this, oldGpa, newGpa);
+        }
+    }
+
+    private void addToTotals(Grade grade, int credits) {
+        if (grade == null) return;
+        totalGradePoints += grade.getGradePoints() * credits;
+        totalGradedCredits += credits;
+    }
+
+    private void removeFromTotals(Grade grade, int credits) {
+        if (grade == null) return;
+        totalGradePoints -= grade.getGradePoints() * credits;
+        totalGradedCredits -= credits;
     }
 
-    public double calculateGPA() {
-        if (enrollments.isEmpty()) return 0.0;
+    public synchronized double getTotalGradePoints() { return totalGradePoints; }
+    public synchronized int getTotalGradedCredits() { return totalGradedCredits; }
 
+    // O(1) read of the maintained totals
+    public synchronized double calculateGPA() {
+        return totalGradedCredits > 0 ? totalGradePoints / totalGradedCredits : 0.0;
+    }
+
+    // Full recomputation over all enrollments, used to verify the running totals
+    public synchronized double recalculateGPA() {
         double totalPoints = 0.0;
         int totalCredits = 0;
 
@@ -54,6 +119,10 @@ public class Student extends Person {
         return totalCredits > 0 ? totalPoints / totalCredits : 0.0;
     }
 
+    public synchronized boolean isGpaConsistent() {
+        return Math.abs(calculateGPA() - recalculateGPA()) < 1e-9;
+    }
+
     @Override
     public String toString() {
         return String.format("Student[%s, RegNo: %s, Active: %s, GPA: %.2f]",
@@ -0,0 +1,86 @@
+package edu.ccrm.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shared dictionary for low-cardinality strings repeated across many records; course and instructor
+// departments are interned here. Each distinct value is stored once and gets a dense int id; its
+// case-folded form gets an id too, so case-insensitive comparisons become int comparisons.
+// Entries are never removed, so only intern values drawn from a small vocabulary.
+public final class SymbolTable {
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Symbol> symbols = new ConcurrentHashMap<>();
+    private final List<Symbol> byId = new ArrayList<>();  // Guarded by this
+
+    // Singleton pattern
+    private static final SymbolTable INSTANCE = new SymbolTable();
+
+    private SymbolTable() {
+    }
+
+    public static SymbolTable getInstance() {
+        return INSTANCE;
+    }
+
+    // The shared instance equal to value; null stays null
+    public String intern(String value) {
+        return value == null ? null : symbol(value).value;
+    }
+
+    public int id(String value) {
+        return value == null ? NONE : symbol(value).id;
+    }
+
+    // Id shared by every case variant of value
+    public int foldedId(String value) {
+        return value == null ? NONE : symbol(value).foldedId;
+    }
+
+    // Lookup without interning: NONE when no case variant of value has been interned
+    public int findFoldedId(String value) {
+        if (value == null) return NONE;
+        Symbol symbol = symbols.get(value);
+        if (symbol == null) symbol = symbols.get(value.toLowerCase(Locale.ROOT));
+        return symbol == null ? NONE : symbol.foldedId;
+    }
+
+    public synchronized String valueOf(int id) {
+        return byId.get(id).value;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private Symbol symbol(String value) {
+        Symbol symbol = symbols.get(value);
+        return symbol != null ? symbol : create(value);
+    }
+
+    private synchronized Symbol create(String value) {
+        Symbol symbol = symbols.get(value);
+        if (symbol != null) return symbol;
+
+        String folded = value.toLowerCase(Locale.ROOT);
+        int foldedId = folded.equals(value) ? byId.size() : symbol(folded).foldedId;
+        symbol = new Symbol(value, byId.size(), foldedId);
+        byId.add(symbol);
+        symbols.put(value, symbol);
+        return symbol;
+    }
+
+    private static final class Symbol {
+        private final String value;
+        private final int id;
+        private final int foldedId;
+
+        Symbol(String value, int id, int foldedId) {
+            this.value = value;
+            this.id = id;
+            this.foldedId = foldedId;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package edu.ccrm.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Single-file backup archive of named entries, each cut into independently deflated frames so
+// entries and frames can be compressed and decompressed on separate threads.
+// Layout: magic and version, frames (entry, sequence, raw length, packed length, CRC32, data) in
+// completion order, then an index of every entry's frames, then the index offset and magic.
+final class BackupArchive implements Closeable {
+    static final String EXTENSION = ".ccrmz";
+
+    private static final int MAGIC = 0x43435241; // "CCRA"
+    private static final short VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 20;
+    private static final int TRAILER_SIZE = 12;
+    private static final int FRAME_SIZE = 1024 * 1024;
+    private static final int FRAMES_IN_FLIGHT = 4;  // per entry, bounds memory while writing or reading
+
+    // Produces the content of one entry
+    @FunctionalInterface
+    interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final Map<String, List<Frame>> index;
+
+    private BackupArchive(FileChannel channel, Map<String, List<Frame>> index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    // Writes every entry on its own thread; frames are deflated on the compression pool and
+    // appended to the file as they complete
+    static void write(Path path, Map<String, EntryWriter> entries, ExecutorService compressionPool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip());
+
+            List<String> names = new ArrayList<>(entries.keySet());
+            List<List<Frame>> frames = new ArrayList<>();
+            ExecutorService entryPool = Executors.newFixedThreadPool(names.size(), daemonThreads("ccrm-archive-entry"));
+            try {
+                List<Future<List<Frame>>> results = new ArrayList<>();
+                for (int id = 0; id < names.size(); id++) {
+                    FrameOutputStream out = new FrameOutputStream(channel, id, compressionPool);
+                    EntryWriter writer = entries.get(names.get(id));
+                    results.add(entryPool.submit(() -> {
+                        try (OutputStream stream = out) {
+                            writer.write(stream);
+                        }
+                        return out.frames();
+                    }));
+                }
+                for (Future<List<Frame>> result : results) {
+                    frames.add(await(result));
+                }
+            } finally {
+                entryPool.shutdownNow();
+            }
+
+            long indexOffset = channel.position();
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(indexBytes);
+            out.writeInt(names.size());
+            for (int id = 0; id < names.size(); id++) {
+                out.writeUTF(names.get(id));
+                out.writeInt(frames.get(id).size());
+                for (Frame frame : frames.get(id)) {
+                    out.writeLong(frame.offset);
+                    out.writeInt(frame.rawLength);
+                    out.writeInt(frame.packedLength);
+                    out.writeInt(frame.checksum);
+                }
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+            ByteBuffer buffer = ByteBuffer.wrap(indexBytes.toByteArray());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+    }
+
+    static BackupArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = readFully(channel, 0, FILE_HEADER_SIZE);
+            ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            if (size < FILE_HEADER_SIZE + TRAILER_SIZE || header.getInt(0) != MAGIC || trailer.getInt(8) != MAGIC) {
+                throw new IOException("Not a CCRM backup archive: " + path);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("Unsupported backup archive version: " + header.getShort(4));
+            }
+
+            long indexOffset = trailer.getLong(0);
+            ByteBuffer indexBytes = readFully(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(indexBytes.array()));
+            Map<String, List<Frame>> index = new LinkedHashMap<>();
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String name = in.readUTF();
+                int frameCount = in.readInt();
+                List<Frame> frames = new ArrayList<>(frameCount);
+                for (int f = 0; f < frameCount; f++) {
+                    frames.add(new Frame(in.readLong(), in.readInt(), in.readInt(), in.readInt()));
+                }
+                index.put(name, frames);
+            }
+            return new BackupArchive(channel, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean hasEntry(String name) {
+        return index.containsKey(name);
+    }
+
+    // Streams an entry, inflating the frames ahead of the reader on the given pool
+    InputStream openEntry(String name, ExecutorService decompressionPool) throws IOException {
+        List<Frame> frames = index.get(name);
+        if (frames == null) throw new FileNotFoundException("No entry " + name + " in backup archive");
+        return new FrameInputStream(frames, decompressionPool);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing backup archive");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Backup archive is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static final class Frame {
+        private final long offset;  // of the frame data, after its header
+        private final int rawLength;
+        private final int packedLength;
+        private final int checksum;
+
+        Frame(long offset, int rawLength, int packedLength, int checksum) {
+            this.offset = offset;
+            this.rawLength = rawLength;
+            this.packedLength = packedLength;
+            this.checksum = checksum;
+        }
+    }
+
+    // Cuts the entry into frames and hands each to the compression pool
+    private static final class FrameOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private final int entryId;
+        private final ExecutorService pool;
+        private final Semaphore inFlight = new Semaphore(FRAMES_IN_FLIGHT);
+        private final List<Future<Frame>> pending = new ArrayList<>();
+        private byte[] chunk = new byte[FRAME_SIZE];
+        private int count;
+
+        FrameOutputStream(FileChannel channel, int entryId, ExecutorService pool) {
+            this.channel = channel;
+            this.entryId = entryId;
+            this.pool = pool;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == chunk.length) submit();
+            chunk[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == chunk.length) submit();
+                int n = Math.min(length, chunk.length - count);
+                System.arraycopy(bytes, offset, chunk, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) submit();
+        }
+
+        List<Frame> frames() throws IOException {
+            List<Frame> frames = new ArrayList<>(pending.size());
+            for (Future<Frame> frame : pending) {
+                frames.add(await(frame));
+            }
+            return frames;
+        }
+
+        private void submit() throws IOException {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing backup archive");
+            }
+            byte[] raw = chunk;
+            int length = count;
+            int sequence = pending.size();
+            pending.add(pool.submit(() -> {
+                try {
+                    return compress(raw, length, sequence);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+            chunk = new byte[FRAME_SIZE];
+            count = 0;
+        }
+
+        private Frame compress(byte[] raw, int length, int sequence) throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(raw, 0, length);
+
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            ByteArrayOutputStream packed = new ByteArrayOutputStream(length / 3 + 64);
+            try {
+                deflater.setInput(raw, 0, length);
+                deflater.finish();
+                byte[] buffer = new byte[64 * 1024];
+                while (!deflater.finished()) {
+                    packed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } finally {
+                deflater.end();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE)
+                    .putInt(entryId).putInt(sequence).putInt(length).putInt(packed.size()).putInt((int) crc.getValue())
+                    .flip();
+            ByteBuffer data = ByteBuffer.wrap(packed.toByteArray());
+            long offset;
+            synchronized (channel) {
+                offset = channel.position() + FRAME_HEADER_SIZE;
+                while (header.hasRemaining()) channel.write(header);
+                while (data.hasRemaining()) channel.write(data);
+            }
+            return new Frame(offset, length, packed.size(), (int) crc.getValue());
+        }
+    }
+
+    // Reads an entry's frames in order while the next few are inflated in the background
+    private final class FrameInputStream extends InputStream {
+        private final List<Frame> frames;
+        private final ExecutorService pool;
+        private final Deque<Future<byte[]>> ahead = new ArrayDeque<>();
+        private int nextFrame;
+        private byte[] current = new byte[0];
+        private int position;
+
+        FrameInputStream(List<Frame> frames, ExecutorService pool) {
+            this.frames = frames;
+            this.pool = pool;
+            while (ahead.size() < FRAMES_IN_FLIGHT && nextFrame < frames.size()) readAhead();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == current.length && !advance()) return -1;
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (position == current.length && !advance()) return -1;
+            int n = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            for (Future<byte[]> future : ahead) future.cancel(true);
+            ahead.clear();
+        }
+
+        private boolean advance() throws IOException {
+            if (ahead.isEmpty()) return false;
+            current = await(ahead.removeFirst());
+            position = 0;
+            if (nextFrame < frames.size()) readAhead();
+            return true;
+        }
+
+        private void readAhead() {
+            Frame frame = frames.get(nextFrame++);
+            ahead.addLast(pool.submit(() -> inflate(frame)));
+        }
+
+        private byte[] inflate(Frame frame) throws IOException {
+            // Raw deflate wants one spare input byte past the end of the stream
+            ByteBuffer packed = ByteBuffer.allocate(frame.packedLength + 1);
+            packed.limit(frame.packedLength);
+            while (packed.hasRemaining()) {
+                if (channel.read(packed, frame.offset + packed.position()) < 0) {
+                    throw new EOFException("Backup archive is truncated");
+                }
+            }
+
+            byte[] raw = new byte[frame.rawLength];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(packed.array(), 0, frame.packedLength + 1);
+                int n = 0;
+                while (n < raw.length && !inflater.finished()) {
+                    int inflated = inflater.inflate(raw, n, raw.length - n);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    n += inflated;
+                }
+                if (n != raw.length) throw new IOException("Backup archive frame is corrupt");
+            } catch (DataFormatException e) {
+                throw new IOException("Backup archive frame is corrupt", e);
+            } finally {
+                inflater.end();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            if ((int) crc.getValue() != frame.checksum) {
+                throw new IOException("Backup archive frame checksum mismatch");
+            }
+            return raw;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Index of every backup in the backup directory: type, parent, and the size and CRC32 of each file.
+// Kept in memory and rewritten through a temp file plus atomic rename on every change, so size,
+// listing and latest-backup lookups never have to walk the backup tree.
+class BackupCatalog {
+    static final String FILE_NAME = "catalog.csv";
+
+    private final Path file;
+    private final TreeMap<String, Entry> entries = new TreeMap<>();  // backup names sort by creation time
+    private long totalBytes;
+
+    BackupCatalog(Path file, Collection<Entry> entries) {
+        this.file = file;
+        for (Entry entry : entries) put(entry);
+    }
+
+    // Null when there is no catalog yet
+    static BackupCatalog read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (CsvReader reader = CsvReader.open(file)) {
+            reader.next();
+            while (reader.next()) {
+                if (reader.isBlankRecord() || reader.size() < 8) continue;
+
+                Entry entry = entries.computeIfAbsent(reader.get(0), name -> new Entry(name,
+                        LocalDateTime.parse(reader.get(1)), reader.get(2),
+                        reader.get(3).isEmpty() ? null : reader.get(3), Integer.parseInt(reader.get(4)),
+                        new ArrayList<>()));
+                entry.files.add(new FileEntry(reader.get(5), Long.parseLong(reader.get(6)),
+                        Long.parseLong(reader.get(7), 16)));
+            }
+        }
+        return new BackupCatalog(file, entries.values());
+    }
+
+    synchronized Entry latest() {
+        return entries.isEmpty() ? null : entries.lastEntry().getValue();
+    }
+
+    synchronized Entry get(String name) {
+        return entries.get(name);
+    }
+
+    synchronized List<Entry> entries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized void add(Entry entry) throws IOException {
+        put(entry);
+        save();
+    }
+
+    synchronized void remove(String name) throws IOException {
+        Entry removed = entries.remove(name);
+        if (removed != null) {
+            totalBytes -= removed.totalBytes();
+            save();
+        }
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.name, entry);
+        if (previous != null) totalBytes -= previous.totalBytes();
+        totalBytes += entry.totalBytes();
+    }
+
+    synchronized void save() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (CsvWriter csv = CsvWriter.open(temp)) {
+            csv.header("Backup,Created,Type,Parent,Depth,File,Bytes,CRC32");
+            for (Entry entry : entries.values()) {
+                for (FileEntry fileEntry : entry.files) {
+                    csv.field(entry.name)
+                            .field(entry.created)
+                            .field(entry.type)
+                            .field(entry.parent != null ? entry.parent : "")
+                            .field(entry.depth)
+                            .field(fileEntry.name)
+                            .field(fileEntry.bytes)
+                            .field(Long.toHexString(fileEntry.crc))
+                            .endRow();
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static final class Entry {
+        final String name;
+        final LocalDateTime created;
+        final String type;
+        final String parent;  // null for a full backup
+        final int depth;
+        final List<FileEntry> files;
+
+        Entry(String name, LocalDateTime created, String type, String parent, int depth, List<FileEntry> files) {
+            this.name = name;
+            this.created = created;
+            this.type = type;
+            this.parent = parent;
+            this.depth = depth;
+            this.files = files;
+        }
+
+        long totalBytes() {
+            long bytes = 0;
+            for (FileEntry file : files) bytes += file.bytes;
+            return bytes;
+        }
+    }
+
+    static final class FileEntry {
+        final String name;
+        final long bytes;
+        final long crc;
+
+        FileEntry(String name, long bytes, long crc) {
+            this.name = name;
+            this.bytes = bytes;
+            this.crc = crc;
+        }
+    }
+}
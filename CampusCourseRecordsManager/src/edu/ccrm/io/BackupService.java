@@ -2,155 +2,750 @@ package edu.ccrm.io;
 
 
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Student;
 import edu.ccrm.exceptions.DataExportException;
-
-import java.io.IOException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.MutationBus;
+import edu.ccrm.service.ServiceState;
+import edu.ccrm.service.StudentService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 public class BackupService {
+    private static final String BACKUP_PREFIX = "backup_";
+    private static final String MANIFEST_FILE = "backup.properties";
+    private static final String STUDENTS_FILE = "students.csv";
+    private static final String COURSES_FILE = "courses.csv";
+    private static final String INSTRUCTORS_FILE = "instructors.csv";
+    private static final String ENROLLMENTS_FILE = "enrollments.csv";
+    private static final String FULL = "FULL";
+    private static final String INCREMENTAL = "INCREMENTAL";
 
     private final ImportExportService importExportService;
     private final AppConfig appConfig;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+    private final ChangeTracker changeTracker;
+    private BackupCatalog catalog;  // loaded on first use
+    // Restores hold the read lock while reading a chain; compaction holds the write lock only to
+    // swap merged backups into place and delete pruned ones
+    private final ReadWriteLock backupFilesLock = new ReentrantReadWriteLock();
+    private final Lock compactionLock = new ReentrantLock();
+    private ScheduledExecutorService maintenance;
 
     public BackupService() {
         this.importExportService = new ImportExportService();
         this.appConfig = AppConfig.getInstance();
+        this.studentService = StudentService.getInstance();
+        this.courseService = CourseService.getInstance();
+        this.enrollmentService = EnrollmentService.getInstance();
+        this.changeTracker = new ChangeTracker();
+        MutationBus.getInstance().addListener(changeTracker);
     }
 
-    // Create a complete backup with timestamp
+    // Backs up only what changed since the previous backup when that interval was tracked in this
+    // session, otherwise (and after getFullBackupInterval increments) takes a full backup
     public void createBackup() throws DataExportException {
-        try {
-            // Create timestamp for backup folder
-            String timestamp = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        BackupCatalog.Entry latest = findLatestBackup();
+        boolean full = latest == null
+                || !latest.name.equals(changeTracker.getBaseline())
+                || latest.depth >= appConfig.getFullBackupInterval();
+        createBackup(full ? null : latest);
+    }
 
-            Path backupDir = appConfig.getBackupFilePath().resolve("backup_" + timestamp);
-            Files.createDirectories(backupDir);
+    public void createFullBackup() throws DataExportException {
+        createBackup(null);
+    }
 
-            System.out.println("Creating backup in: " + backupDir.toAbsolutePath());
+    // Writes into a hidden staging path and renames it into place once complete
+    private void createBackup(BackupCatalog.Entry parent) throws DataExportException {
+        boolean archive = "archive".equalsIgnoreCase(appConfig.getBackupFormat());
+        Path backupPath = appConfig.getBackupFilePath();
+        if (archive) {
+            backupPath = backupPath.resolveSibling(backupPath.getFileName() + BackupArchive.EXTENSION);
+        }
+        Path stagingPath = backupPath.resolveSibling("." + backupPath.getFileName());
+        ChangeTracker.Changes changes = changeTracker.drain();
 
-            // Export data to backup directory
-            String studentsFile = backupDir.resolve("students.csv").toString();
-            String coursesFile = backupDir.resolve("courses.csv").toString();
+        try {
+            Contents contents;
+            Manifest manifest;
+            if (parent == null) {
+                System.out.println("Creating full backup in: " + backupPath.toAbsolutePath());
+                contents = allContents();
+                manifest = new Manifest(FULL, null, 0);
+            } else {
+                System.out.println("Creating incremental backup in: " + backupPath.toAbsolutePath()
+                        + " (" + changes.studentIds.size() + " students, " + changes.courseCodes.size()
+                        + " courses, " + changes.enrollmentKeys.size() + " enrollments changed since "
+                        + parent.name + ")");
+                contents = changedContents(changes);
+                manifest = new Manifest(INCREMENTAL, parent.name, parent.depth + 1);
+            }
 
-            importExportService.exportStudentsToCSV(studentsFile);
-            importExportService.exportCoursesToCSV(coursesFile);
+            String name = backupPath.getFileName().toString();
+            List<BackupCatalog.FileEntry> files = writeBackup(stagingPath, name, contents, manifest);
+            System.out.printf("✓ Wrote %,d students, %,d courses, %,d instructors and %,d enrollments%n",
+                    contents.students.size(), contents.courses.size(), contents.instructors.size(),
+                    contents.enrollments.size() + contents.removedEnrollments.size());
 
-            System.out.println("✓ Backup completed successfully: " + backupDir.getFileName());
+            Files.move(stagingPath, backupPath, StandardCopyOption.ATOMIC_MOVE);
+            catalog().add(new BackupCatalog.Entry(name, manifest.created, manifest.type, manifest.parent,
+                    manifest.depth, files));
+            changeTracker.rebase(name);
 
-        } catch (IOException e) {
+            System.out.println("✓ Backup completed successfully: " + backupPath.getFileName());
+
+        } catch (IOException | DataExportException e) {
+            changeTracker.restore(changes);
+            deleteQuietly(stagingPath);
+            if (e instanceof DataExportException) throw (DataExportException) e;
             throw new DataExportException("Backup failed: " + e.getMessage(), e);
         }
     }
 
-    // Recursive method to calculate backup directory size
-    public long calculateBackupSize() throws DataExportException {
+    // Writes a backup to the staging path in the format its name implies
+    private List<BackupCatalog.FileEntry> writeBackup(Path stagingPath, String name, Contents contents,
+                                                      Manifest manifest) throws IOException {
+        Map<String, BackupArchive.EntryWriter> entries = entryWriters(contents, manifest);
+        ExecutorService pool = newArchivePool();
         try {
-            Path backupDir = appConfig.getBackupDirectory();
+            if (name.endsWith(BackupArchive.EXTENSION)) {
+                BackupArchive.write(stagingPath, entries, pool);
+                return List.of(new BackupCatalog.FileEntry(name, Files.size(stagingPath), checksum(stagingPath)));
+            }
+            return writeDirectory(stagingPath, entries, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-            if (!Files.exists(backupDir)) {
-                return 0;
+    // One writer per backup file; the same writers fill a directory or an archive
+    private Map<String, BackupArchive.EntryWriter> entryWriters(Contents contents, Manifest manifest) {
+        Map<String, BackupArchive.EntryWriter> entries = new LinkedHashMap<>();
+        entries.put(STUDENTS_FILE, out -> {
+            try (CsvWriter csv = new CsvWriter(out)) {
+                importExportService.writeStudents(csv, contents.students);
             }
+        });
+        entries.put(COURSES_FILE, out -> {
+            try (CsvWriter csv = new CsvWriter(out)) {
+                importExportService.writeCourses(csv, contents.courses);
+            }
+        });
+        entries.put(INSTRUCTORS_FILE, out -> {
+            try (CsvWriter csv = new CsvWriter(out)) {
+                importExportService.writeInstructors(csv, contents.instructors);
+            }
+        });
+        entries.put(ENROLLMENTS_FILE, out -> {
+            try (CsvWriter csv = new CsvWriter(out)) {
+                importExportService.writeEnrollments(csv, contents.enrollments, contents.removedEnrollments);
+            }
+        });
+        entries.put(MANIFEST_FILE, out -> manifest.toProperties().store(out, "CCRM backup"));
+        return entries;
+    }
 
-            // Using Files.walk for recursive directory traversal
-            final long[] totalSize = {0};
+    // The files of a directory backup are independent and written concurrently,
+    // each checksummed on the way out for the catalog
+    private static List<BackupCatalog.FileEntry> writeDirectory(Path dir, Map<String, BackupArchive.EntryWriter> entries,
+                                                               ExecutorService pool) throws IOException {
+        Files.createDirectories(dir);
+        List<CompletableFuture<BackupCatalog.FileEntry>> writes = new ArrayList<>();
+        for (Map.Entry<String, BackupArchive.EntryWriter> entry : entries.entrySet()) {
+            writes.add(CompletableFuture.supplyAsync(() -> {
+                Path file = dir.resolve(entry.getKey());
+                CRC32 crc = new CRC32();
+                try (OutputStream out = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), crc)) {
+                    entry.getValue().write(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                try {
+                    return new BackupCatalog.FileEntry(entry.getKey(), Files.size(file), crc.getValue());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, pool));
+        }
+        try {
+            List<BackupCatalog.FileEntry> files = new ArrayList<>(writes.size());
+            for (CompletableFuture<BackupCatalog.FileEntry> write : writes) files.add(write.join());
+            return files;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw e;
+        }
+    }
 
-            Files.walk(backupDir)
-                    .filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        try {
-                            totalSize[0] += Files.size(file);
-                        } catch (IOException e) {
-                            System.out.println("Warning: Could not get size of " + file);
-                        }
-                    });
+    // Sum of all catalogued backup files, without touching the backups themselves
+    public long calculateBackupSize() throws DataExportException {
+        return catalog().totalBytes();
+    }
 
-            return totalSize[0];
+    public void listBackupFiles() throws DataExportException {
+        BackupCatalog catalog = catalog();
+        if (catalog.size() == 0) {
+            System.out.println("No backups found.");
+            return;
+        }
 
-        } catch (IOException e) {
-            throw new DataExportException("Failed to calculate backup size: " + e.getMessage(), e);
+        System.out.println("Backups (" + catalog.size() + "):");
+        System.out.println("=======================");
+        for (BackupCatalog.Entry entry : catalog.entries()) {
+            System.out.println((entry.name.endsWith(BackupArchive.EXTENSION) ? "[ARCHIVE] " : "[DIR] ") + entry.name
+                    + " (" + entry.type + (entry.parent != null ? " of " + entry.parent : "") + ", "
+                    + entry.created.withNano(0) + ", " + entry.totalBytes() + " bytes)");
+            for (BackupCatalog.FileEntry file : entry.files) {
+                System.out.printf("  [FILE] %s (%d bytes, crc32 %08x)%n", file.name, file.bytes, file.crc);
+            }
         }
     }
 
-    // Recursive method to list backup files by depth
-    public void listBackupFiles() throws DataExportException {
+    // Restores the latest backup: its full backup first, then each increment in order
+    public void restoreFromLatestBackup() throws DataExportException {
+        BackupCatalog.Entry latest = findLatestBackup();
+        if (latest == null) {
+            throw new DataExportException("No backup found");
+        }
+
+        long start = System.nanoTime();
+        Staged staged;
+        backupFilesLock.readLock().lock();
         try {
-            Path backupDir = appConfig.getBackupDirectory();
+            List<Path> chain = chainOf(latest);
+            System.out.println("Restoring from: " + latest.name
+                    + (chain.size() > 1 ? " (full backup + " + (chain.size() - 1) + " increments)" : ""));
+            staged = stage(chain);
+        } finally {
+            backupFilesLock.readLock().unlock();
+        }
+        Resolved resolved = staged.resolve();
+        ServiceState.replace(resolved.students, resolved.courses, resolved.enrollments);
+        changeTracker.reset(latest.name);
+
+        System.out.printf("✓ Restored %,d students, %,d courses, %,d instructors and %,d enrollments in %.2fs%n",
+                resolved.students.size(), resolved.courses.size(), staged.instructors.size(),
+                resolved.enrollments.size(), (System.nanoTime() - start) / 1e9);
+        if (resolved.unresolved > 0) {
+            System.out.println("Warning: skipped " + resolved.unresolved + " references to records missing from the backup");
+        }
+        System.out.println("✓ Restore completed successfully");
+    }
+
+    // The backups needed to rebuild the given one, full backup first
+    private List<Path> chainOf(BackupCatalog.Entry latest) throws DataExportException {
+        Path backupDir = appConfig.getBackupDirectory();
+        Deque<Path> chain = new ArrayDeque<>();
+        for (BackupCatalog.Entry entry = latest; ; ) {
+            Path backup = backupDir.resolve(entry.name);
+            if (!Files.exists(backup)) {
+                throw new DataExportException("Backup chain is broken, missing: " + entry.name);
+            }
+            chain.addFirst(backup);
+            if (entry.parent == null) break;
+            String parent = entry.parent;
+            entry = catalog().get(parent);
+            if (entry == null) {
+                throw new DataExportException("Backup chain is broken, missing: " + parent);
+            }
+        }
+        return new ArrayList<>(chain);
+    }
 
-            if (!Files.exists(backupDir)) {
-                System.out.println("No backup directory found.");
+    // Runs the retention policy every getBackupMaintenanceMinutes on a low-priority daemon thread
+    public synchronized void startMaintenance() {
+        long minutes = appConfig.getBackupMaintenanceMinutes();
+        if (maintenance != null || minutes <= 0) return;
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-backup-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                compact(false);
+            } catch (DataExportException | RuntimeException e) {
+                System.out.println("Warning: Background backup maintenance failed: " + e.getMessage());
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stopMaintenance() {
+        if (maintenance == null) return;
+        maintenance.shutdownNow();
+        maintenance = null;
+    }
+
+    // Applies the retention policy now, waiting for a background run in progress
+    public void applyRetentionPolicy() throws DataExportException {
+        compact(true);
+    }
+
+    // Backups the policy keeps survive; the others are pruned. A kept increment whose chain runs
+    // through a pruned backup is first merged into a full backup under its own name, so kept
+    // backups (and later increments built on them) stay restorable.
+    private void compact(boolean wait) throws DataExportException {
+        if (wait) {
+            compactionLock.lock();
+        } else if (!compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            RetentionPolicy policy = new RetentionPolicy(appConfig.getBackupKeepLast(), appConfig.getBackupKeepHourly(),
+                    appConfig.getBackupKeepDaily(), appConfig.getBackupKeepWeekly());
+            List<BackupCatalog.Entry> entries = catalog().entries();
+            Set<String> keep = policy.retained(entries);
+            if (keep.size() == entries.size()) {
+                if (wait) System.out.println("✓ Backup retention (" + policy + "): nothing to prune");
                 return;
             }
 
-            System.out.println("Backup files structure:");
-            System.out.println("=======================");
+            long start = System.nanoTime();
+            int merged = 0;
+            for (BackupCatalog.Entry entry : entries) {
+                if (keep.contains(entry.name) && !chainRetained(entry, keep)) {
+                    try {
+                        mergeIntoFull(catalog().get(entry.name));
+                        merged++;
+                    } catch (DataExportException e) {
+                        // Its chain stays in place so the backup is no worse off than before
+                        System.out.println("Warning: " + e.getMessage());
+                        keepChain(entry, keep);
+                    }
+                }
+            }
 
-            // Recursive file listing with depth
-            listFilesRecursive(backupDir, 0);
+            List<String> pruned = new ArrayList<>();
+            backupFilesLock.writeLock().lock();
+            try {
+                // Dropped from the catalog first: a crash leaves unlisted files, never dangling entries
+                for (BackupCatalog.Entry entry : entries) {
+                    if (keep.contains(entry.name)) continue;
+                    catalog().remove(entry.name);
+                    deleteQuietly(appConfig.getBackupDirectory().resolve(entry.name));
+                    pruned.add(entry.name);
+                }
+            } catch (IOException e) {
+                throw new DataExportException("Failed to update backup catalog: " + e.getMessage(), e);
+            } finally {
+                backupFilesLock.writeLock().unlock();
+            }
+
+            System.out.printf("✓ Backup retention (%s): kept %d, merged %d into full backups, pruned %d in %.2fs%n",
+                    policy, keep.size(), merged, pruned.size(), (System.nanoTime() - start) / 1e9);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
 
+    // Whether every backup in the entry's chain is kept
+    private boolean chainRetained(BackupCatalog.Entry entry, Set<String> keep) throws DataExportException {
+        for (String parent = entry.parent; parent != null; ) {
+            BackupCatalog.Entry link = catalog().get(parent);
+            if (link == null || !keep.contains(parent)) return false;
+            parent = link.parent;
+        }
+        return true;
+    }
+
+    private void keepChain(BackupCatalog.Entry entry, Set<String> keep) throws DataExportException {
+        for (BackupCatalog.Entry link = entry; link != null; link = link.parent != null ? catalog().get(link.parent) : null) {
+            keep.add(link.name);
+        }
+    }
+
+    // Rewrites an increment as a full backup of the state it represents, keeping its name and
+    // creation time. The merged copy is built beside the original and swapped in by two renames.
+    private void mergeIntoFull(BackupCatalog.Entry entry) throws DataExportException {
+        Path backupDir = appConfig.getBackupDirectory();
+        Path target = backupDir.resolve(entry.name);
+        Path stagingPath = backupDir.resolve("." + entry.name + ".merge");
+        Path retiredPath = backupDir.resolve("." + entry.name + ".old");
+
+        try {
+            Staged staged;
+            backupFilesLock.readLock().lock();
+            try {
+                staged = stage(chainOf(entry));
+            } finally {
+                backupFilesLock.readLock().unlock();
+            }
+            Resolved resolved = staged.resolve();
+            Contents contents = new Contents(resolved.students, resolved.courses, instructorsOf(resolved.courses),
+                    resolved.enrollments, Collections.emptyList());
+            Manifest manifest = new Manifest(FULL, null, 0, entry.created);
+            List<BackupCatalog.FileEntry> files = writeBackup(stagingPath, entry.name, contents, manifest);
+
+            backupFilesLock.writeLock().lock();
+            try {
+                Files.move(target, retiredPath, StandardCopyOption.ATOMIC_MOVE);
+                try {
+                    Files.move(stagingPath, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    Files.move(retiredPath, target, StandardCopyOption.ATOMIC_MOVE);
+                    throw e;
+                }
+                catalog().add(new BackupCatalog.Entry(entry.name, entry.created, FULL, null, 0, files));
+            } finally {
+                backupFilesLock.writeLock().unlock();
+            }
+            deleteQuietly(retiredPath);
         } catch (IOException e) {
-            throw new DataExportException("Failed to list backup files: " + e.getMessage(), e);
+            deleteQuietly(stagingPath);
+            throw new DataExportException("Failed to merge " + entry.name + " into a full backup: " + e.getMessage(), e);
         }
     }
 
-    // Recursive helper method for file listing
-    private void listFilesRecursive(Path dir, int depth) throws IOException {
-        if (!Files.isDirectory(dir)) {
-            return;
+    // Each file type is read on its own thread, walking the chain from the full backup so later
+    // increments replace rows from earlier links. Nothing touches the live services here.
+    private Staged stage(List<Path> chain) throws DataExportException {
+        Staged staged = new Staged();
+        ExecutorService readers = Executors.newFixedThreadPool(4, BackupArchive.daemonThreads("ccrm-restore"));
+        ExecutorService pool = newArchivePool();
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> readChain(chain, STUDENTS_FILE, reader ->
+                            importExportService.readStudents(reader, student -> staged.students.put(student.getId(), student)), pool), readers),
+                    CompletableFuture.runAsync(() -> readChain(chain, COURSES_FILE, reader ->
+                            importExportService.readCourses(reader, (course, instructorId) -> {
+                                staged.courses.put(course.getCode(), course);
+                                staged.courseInstructors.put(course.getCode(), instructorId);
+                            }), pool), readers),
+                    CompletableFuture.runAsync(() -> readChain(chain, INSTRUCTORS_FILE, reader ->
+                            importExportService.readInstructors(reader, instructor -> staged.instructors.put(instructor.getId(), instructor)), pool), readers),
+                    CompletableFuture.runAsync(() -> readChain(chain, ENROLLMENTS_FILE, reader ->
+                            importExportService.readEnrollments(reader, row -> {
+                                if (row.isRemoved()) staged.enrollments.remove(row.key());
+                                else staged.enrollments.put(row.key(), row);
+                            }), pool), readers)
+            ).join();
+            return staged;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) cause = cause.getCause();
+            throw new DataExportException("Failed to restore backup: " + cause.getMessage(), cause);
+        } finally {
+            readers.shutdownNow();
+            pool.shutdownNow();
         }
+    }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
-            for (Path entry : stream) {
-                // Indentation based on depth
-                String indent = "  ".repeat(depth);
+    @FunctionalInterface
+    private interface EntryReader {
+        long read(CsvReader reader) throws IOException;
+    }
 
-                if (Files.isDirectory(entry)) {
-                    System.out.println(indent + "[DIR] " + entry.getFileName());
-                    listFilesRecursive(entry, depth + 1); // Recursive call
+    // Backups written before a file type existed simply contribute no rows of that type
+    private static void readChain(List<Path> chain, String name, EntryReader entryReader, ExecutorService pool) {
+        for (Path backup : chain) {
+            try {
+                if (Files.isDirectory(backup)) {
+                    Path file = backup.resolve(name);
+                    if (!Files.exists(file)) continue;
+                    try (CsvReader reader = CsvReader.open(file)) {
+                        entryReader.read(reader);
+                    }
                 } else {
-                    long size = Files.size(entry);
-                    System.out.println(indent + "[FILE] " + entry.getFileName() +
-                            " (" + size + " bytes)");
+                    try (BackupArchive archive = BackupArchive.open(backup)) {
+                        if (!archive.hasEntry(name)) continue;
+                        try (CsvReader reader = new CsvReader(new InputStreamReader(archive.openEntry(name, pool), StandardCharsets.UTF_8))) {
+                            entryReader.read(reader);
+                        }
+                    }
                 }
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException(backup.getFileName() + "/" + name + ": " + e.getMessage(), e));
             }
         }
     }
 
-    // Restore from latest backup
-    public void restoreFromLatestBackup() throws DataExportException {
+    private static ExecutorService newArchivePool() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                BackupArchive.daemonThreads("ccrm-archive-codec"));
+    }
+
+    // The catalog's newest entry; a catalog that lost track of the backup directory is rebuilt once
+    private synchronized BackupCatalog.Entry findLatestBackup() throws DataExportException {
+        BackupCatalog.Entry latest = catalog().latest();
+        if (latest != null && !Files.exists(appConfig.getBackupDirectory().resolve(latest.name))) {
+            System.out.println("Warning: backup catalog is out of date, rebuilding it");
+            catalog = rebuildCatalog();
+            latest = catalog.latest();
+        }
+        return latest;
+    }
+
+    private synchronized BackupCatalog catalog() throws DataExportException {
+        if (catalog == null) {
+            try {
+                catalog = BackupCatalog.read(appConfig.getBackupDirectory().resolve(BackupCatalog.FILE_NAME));
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Warning: backup catalog is unreadable (" + e.getMessage() + "), rebuilding it");
+            }
+            if (catalog == null) catalog = rebuildCatalog();
+        }
+        return catalog;
+    }
+
+    // One scan of the backup directory, for the first run and for catalogs that are missing or stale
+    private BackupCatalog rebuildCatalog() throws DataExportException {
+        Path backupDir = appConfig.getBackupDirectory();
+        List<BackupCatalog.Entry> entries = new ArrayList<>();
         try {
-            Path backupDir = appConfig.getBackupDirectory();
+            Files.createDirectories(backupDir);
+            List<Path> backups;
+            try (Stream<Path> listing = Files.list(backupDir)) {
+                backups = listing.filter(path -> path.getFileName().toString().startsWith(BACKUP_PREFIX))
+                        .filter(path -> Files.isDirectory(path) || path.getFileName().toString().endsWith(BackupArchive.EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
 
-            if (!Files.exists(backupDir)) {
-                throw new DataExportException("No backup directory found");
+            for (Path backup : backups) {
+                Manifest manifest;
+                try {
+                    manifest = readManifest(backup);
+                } catch (DataExportException e) {
+                    System.out.println("Warning: leaving " + backup.getFileName() + " out of the catalog: " + e.getMessage());
+                    continue;
+                }
+                List<BackupCatalog.FileEntry> files = new ArrayList<>();
+                if (Files.isDirectory(backup)) {
+                    try (Stream<Path> listing = Files.list(backup)) {
+                        for (Path file : listing.sorted().collect(Collectors.toList())) {
+                            files.add(new BackupCatalog.FileEntry(file.getFileName().toString(), Files.size(file), checksum(file)));
+                        }
+                    }
+                } else {
+                    files.add(new BackupCatalog.FileEntry(backup.getFileName().toString(), Files.size(backup), checksum(backup)));
+                }
+                LocalDateTime created = manifest.created != null ? manifest.created
+                        : LocalDateTime.ofInstant(Files.getLastModifiedTime(backup).toInstant(), ZoneId.systemDefault());
+                entries.add(new BackupCatalog.Entry(backup.getFileName().toString(), created, manifest.type,
+                        manifest.parent, manifest.depth, files));
             }
 
-            // Find latest backup folder
-            Path latestBackup = Files.list(backupDir)
-                    .filter(Files::isDirectory)
-                    .filter(path -> path.getFileName().toString().startsWith("backup_"))
-                    .max(Path::compareTo)
-                    .orElseThrow(() -> new DataExportException("No backup found"));
+            BackupCatalog rebuilt = new BackupCatalog(backupDir.resolve(BackupCatalog.FILE_NAME), entries);
+            rebuilt.save();
+            return rebuilt;
+        } catch (IOException e) {
+            throw new DataExportException("Failed to rebuild backup catalog: " + e.getMessage(), e);
+        }
+    }
 
-            System.out.println("Restoring from: " + latestBackup.getFileName());
+    private static long checksum(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
 
-            String studentsFile = latestBackup.resolve("students.csv").toString();
-            String coursesFile = latestBackup.resolve("courses.csv").toString();
+    private Contents allContents() {
+        List<Student> students = studentService.getAllStudents();
+        List<Course> courses = courseService.getAllCourses();
+        List<Enrollment> enrollments = new ArrayList<>(enrollmentService.getEnrollmentCount());
+        for (Student student : students) {
+            enrollments.addAll(student.getEnrollments());
+        }
+        return new Contents(students, courses, instructorsOf(courses), enrollments, Collections.emptyList());
+    }
 
-            // Clear existing data first
-            // Note: In a real application, you'd have methods to clear services
+    // Changed enrollments that no longer exist are written as removals
+    private Contents changedContents(ChangeTracker.Changes changes) {
+        List<Student> students = new ArrayList<>(changes.studentIds.size());
+        for (String id : changes.studentIds) {
+            Student student = studentService.getStudent(id);
+            if (student != null) students.add(student);
+        }
 
-            // Import from backup
-            importExportService.importStudentsFromCSV(studentsFile);
-            importExportService.importCoursesFromCSV(coursesFile);
+        List<Course> courses = new ArrayList<>(changes.courseCodes.size());
+        for (String code : changes.courseCodes) {
+            Course course = courseService.getCourse(code);
+            if (course != null) courses.add(course);
+        }
 
-            System.out.println("✓ Restore completed successfully");
+        List<Enrollment> enrollments = new ArrayList<>(changes.enrollmentKeys.size());
+        List<ImportExportService.EnrollmentRow> removed = new ArrayList<>();
+        for (String key : changes.enrollmentKeys) {
+            int separator = key.indexOf('\u0000');
+            String studentId = key.substring(0, separator);
+            String courseCode = key.substring(separator + 1);
+            Enrollment enrollment = enrollmentService.getEnrollment(
+                    studentService.getStudent(studentId), courseService.getCourse(courseCode));
+            if (enrollment != null) {
+                enrollments.add(enrollment);
+            } else {
+                removed.add(ImportExportService.EnrollmentRow.removed(studentId, courseCode));
+            }
+        }
+        return new Contents(students, courses, instructorsOf(courses), enrollments, removed);
+    }
 
+    private static Collection<Instructor> instructorsOf(Collection<Course> courses) {
+        Map<String, Instructor> instructors = new LinkedHashMap<>();
+        for (Course course : courses) {
+            if (course.getInstructor() != null) {
+                instructors.putIfAbsent(course.getInstructor().getId(), course.getInstructor());
+            }
+        }
+        return instructors.values();
+    }
+
+    // Backups written before increments existed have no manifest and are full backups
+    private Manifest readManifest(Path backup) throws DataExportException {
+        Properties properties = new Properties();
+        try {
+            if (Files.isDirectory(backup)) {
+                Path file = backup.resolve(MANIFEST_FILE);
+                if (!Files.exists(file)) return new Manifest(FULL, null, 0, null);
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    properties.load(reader);
+                }
+            } else {
+                try (BackupArchive archive = BackupArchive.open(backup)) {
+                    if (!archive.hasEntry(MANIFEST_FILE)) return new Manifest(FULL, null, 0, null);
+                    try (InputStream in = archive.openEntry(MANIFEST_FILE, ForkJoinPool.commonPool())) {
+                        properties.load(in);
+                    }
+                }
+            }
         } catch (IOException e) {
-            throw new DataExportException("Restore failed: " + e.getMessage(), e);
+            throw new DataExportException("Failed to read backup manifest of " + backup.getFileName() + ": " + e.getMessage(), e);
+        }
+        String created = properties.getProperty("created");
+        return new Manifest(properties.getProperty("type", FULL), properties.getProperty("parent"),
+                Integer.parseInt(properties.getProperty("depth", "0")), created != null ? LocalDateTime.parse(created) : null);
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+            // Staging paths are hidden from listing and restore, so leftovers are harmless
+        }
+    }
+
+    // Type and position of a backup in its chain; depth counts increments since the full backup
+    private static final class Manifest {
+        private final String type;
+        private final String parent;
+        private final int depth;
+        private final LocalDateTime created;  // null in backups written before it was recorded
+
+        Manifest(String type, String parent, int depth) {
+            this(type, parent, depth, LocalDateTime.now());
+        }
+
+        Manifest(String type, String parent, int depth, LocalDateTime created) {
+            this.type = type;
+            this.parent = parent;
+            this.depth = depth;
+            this.created = created;
+        }
+
+        Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("type", type);
+            if (parent != null) properties.setProperty("parent", parent);
+            properties.setProperty("depth", String.valueOf(depth));
+            properties.setProperty("created", created.toString());
+            return properties;
+        }
+    }
+
+    // Records selected for one backup
+    private static final class Contents {
+        private final Collection<Student> students;
+        private final Collection<Course> courses;
+        private final Collection<Instructor> instructors;
+        private final Collection<Enrollment> enrollments;
+        private final Collection<ImportExportService.EnrollmentRow> removedEnrollments;
+
+        Contents(Collection<Student> students, Collection<Course> courses, Collection<Instructor> instructors,
+                 Collection<Enrollment> enrollments, Collection<ImportExportService.EnrollmentRow> removedEnrollments) {
+            this.students = students;
+            this.courses = courses;
+            this.instructors = instructors;
+            this.enrollments = enrollments;
+            this.removedEnrollments = removedEnrollments;
+        }
+    }
+
+    // Rows merged across a backup chain, before references are resolved.
+    // Each map is written by a single reader thread.
+    private static final class Staged {
+        private final Map<String, Student> students = new HashMap<>();
+        private final Map<String, Course> courses = new HashMap<>();
+        private final Map<String, String> courseInstructors = new HashMap<>();
+        private final Map<String, Instructor> instructors = new HashMap<>();
+        private final Map<String, ImportExportService.EnrollmentRow> enrollments = new HashMap<>();
+
+        // Links courses to instructors and enrollments to students and courses
+        Resolved resolve() {
+            long unresolved = 0;
+            for (Course course : courses.values()) {
+                String instructorId = courseInstructors.get(course.getCode());
+                if (instructorId == null || instructorId.isEmpty()) continue;
+                Instructor instructor = instructors.get(instructorId);
+                if (instructor != null) course.setInstructor(instructor);
+                else unresolved++;
+            }
+
+            List<Enrollment> resolved = new ArrayList<>(enrollments.size());
+            for (ImportExportService.EnrollmentRow row : enrollments.values()) {
+                Student student = students.get(row.studentId);
+                Course course = courses.get(row.courseCode);
+                if (student == null || course == null) {
+                    unresolved++;
+                    continue;
+                }
+                Enrollment enrollment = new Enrollment(student, course, row.enrollmentDate);
+                if (row.marks >= 0) enrollment.recordMarks(row.marks);
+                resolved.add(enrollment);
+            }
+            return new Resolved(students.values(), courses.values(), resolved, unresolved);
+        }
+    }
+
+    private static final class Resolved {
+        private final Collection<Student> students;
+        private final Collection<Course> courses;
+        private final List<Enrollment> enrollments;
+        private final long unresolved;
+
+        Resolved(Collection<Student> students, Collection<Course> courses, List<Enrollment> enrollments, long unresolved) {
+            this.students = students;
+            this.courses = courses;
+            this.enrollments = enrollments;
+            this.unresolved = unresolved;
         }
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.exceptions.DataExportException;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+// Renders transcripts for many students at once. Students are split into batches rendered on a
+// fixed pool; at most BATCHES_IN_FLIGHT per thread are queued, so memory stays bounded.
+public class BatchTranscriptGenerator {
+    private static final int BATCH_SIZE = 256;
+    private static final int BATCHES_IN_FLIGHT = 2;
+
+    private final StudentService studentService;
+    private final TranscriptService transcriptService;
+
+    public BatchTranscriptGenerator() {
+        this.studentService = StudentService.getInstance();
+        this.transcriptService = new TranscriptService();
+    }
+
+    // One <student id>.txt per student in the given directory
+    public Report exportToDirectory(String directory, Predicate<Student> filter) throws DataExportException {
+        Path dir = Path.of(directory);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new DataExportException("Failed to create transcript directory: " + e.getMessage(), e);
+        }
+
+        Report report = generate(filter, batch -> {
+            long bytes = 0;
+            StringBuilder text = new StringBuilder(1024);
+            for (Student student : batch) {
+                text.setLength(0);
+                transcriptService.renderTranscript(student, text);
+                byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_8);
+                try {
+                    Files.write(dir.resolve(fileName(student)), encoded);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                bytes += encoded.length;
+            }
+            return new Rendered(null, bytes);
+        }, null);
+        System.out.println("✓ Transcripts exported to: " + dir.toAbsolutePath() + " - " + report);
+        return report;
+    }
+
+    // All transcripts in one file, in student ID order, separated by blank lines
+    public Report exportCombined(String filename, Predicate<Student> filter) throws DataExportException {
+        Path filePath = Path.of(filename);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(filePath), 64 * 1024)) {
+            Report report = generate(filter, this::render, out);
+            System.out.println("✓ Transcripts exported to: " + filePath.toAbsolutePath() + " - " + report);
+            return report;
+        } catch (IOException e) {
+            throw new DataExportException("Failed to export transcripts: " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchTask {
+        Rendered run(List<Student> batch);
+    }
+
+    // Runs batches in parallel; with a combined stream the rendered batches are written in order.
+    // Batches are filled from the id-ordered student stream, so only the batches in flight are held.
+    private Report generate(Predicate<Student> filter, BatchTask task, OutputStream combined)
+            throws DataExportException {
+        long start = System.nanoTime();
+        Iterator<Student> students = studentService.stream().filter(filter).iterator();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, BackupArchive.daemonThreads("ccrm-transcripts"));
+        Deque<Future<Rendered>> inFlight = new ArrayDeque<>();
+        int count = 0;
+        long bytes = 0;
+        try {
+            while (students.hasNext()) {
+                List<Student> batch = new ArrayList<>(BATCH_SIZE);
+                while (batch.size() < BATCH_SIZE && students.hasNext()) {
+                    batch.add(students.next());
+                }
+                count += batch.size();
+                if (inFlight.size() >= threads * BATCHES_IN_FLIGHT) {
+                    bytes += complete(inFlight.removeFirst(), combined);
+                }
+                inFlight.addLast(pool.submit(() -> task.run(batch)));
+            }
+            while (!inFlight.isEmpty()) {
+                bytes += complete(inFlight.removeFirst(), combined);
+            }
+        } catch (IOException | ExecutionException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            if (cause instanceof UncheckedIOException) cause = cause.getCause();
+            throw new DataExportException("Transcript generation failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataExportException("Transcript generation interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Report(count, bytes, System.nanoTime() - start);
+    }
+
+    private Rendered render(List<Student> batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 640);
+        for (Student student : batch) {
+            transcriptService.renderTranscript(student, text);
+            text.append('\n');
+        }
+        byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_8);
+        return new Rendered(encoded, encoded.length);
+    }
+
+    private static long complete(Future<Rendered> future, OutputStream combined)
+            throws IOException, ExecutionException, InterruptedException {
+        Rendered rendered = future.get();
+        if (combined != null) combined.write(rendered.text);
+        return rendered.bytes;
+    }
+
+    private static String fileName(Student student) {
+        return student.getId().replaceAll("[^A-Za-z0-9_.-]", "_") + ".txt";
+    }
+
+    // A finished batch: its text when it goes to the combined stream, and its size
+    private static final class Rendered {
+        private final byte[] text;
+        private final long bytes;
+
+        Rendered(byte[] text, long bytes) {
+            this.text = text;
+            this.bytes = bytes;
+        }
+    }
+
+    public static final class Report {
+        private final int count;
+        private final long bytes;
+        private final long nanos;
+
+        Report(int count, long bytes, long nanos) {
+            this.count = count;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public int getCount() { return count; }
+        public long getBytes() { return bytes; }
+        public double getSeconds() { return nanos / 1e9; }
+
+        public double getTranscriptsPerSecond() {
+            return nanos > 0 ? count / getSeconds() : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d transcripts, %,d bytes in %.2fs (%,.0f transcripts/s)",
+                    count, bytes, getSeconds(), getTranscriptsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+import edu.ccrm.service.MutationListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dirty sets of students, courses and enrollments changed since the backup named by the baseline
+class ChangeTracker implements MutationListener {
+    private final Set<String> students = ConcurrentHashMap.newKeySet();
+    private final Set<String> courses = ConcurrentHashMap.newKeySet();
+    private final Set<String> enrollments = ConcurrentHashMap.newKeySet();  // studentId + '\0' + courseCode
+    private volatile String baseline;  // null until a backup has been taken or restored in this process
+
+    @Override
+    public void studentAdded(Student student) {
+        students.add(student.getId());
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        students.add(student.getId());
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        courses.add(course.getCode());
+    }
+
+    @Override
+    public void courseUpdated(Course course) {
+        courses.add(course.getCode());
+    }
+
+    @Override
+    public void enrollmentAdded(Enrollment enrollment) {
+        enrollments.add(key(enrollment));
+    }
+
+    @Override
+    public void enrollmentRemoved(Enrollment enrollment) {
+        enrollments.add(key(enrollment));
+    }
+
+    @Override
+    public void gradeRecorded(Enrollment enrollment) {
+        enrollments.add(key(enrollment));
+    }
+
+    // Dirty sets describe changes to the replaced state, and the baseline backup no longer matches
+    // what is loaded, so the next backup must be full. A restore then rebases onto what it loaded.
+    @Override
+    public void stateReplaced() {
+        reset(null);
+    }
+
+    String getBaseline() { return baseline; }
+
+    // Takes the current dirty sets; changes made afterwards are tracked for the next backup
+    Changes drain() {
+        return new Changes(drain(students), drain(courses), drain(enrollments));
+    }
+
+    // Puts back changes whose backup failed
+    void restore(Changes changes) {
+        students.addAll(changes.studentIds);
+        courses.addAll(changes.courseCodes);
+        enrollments.addAll(changes.enrollmentKeys);
+    }
+
+    // Starts tracking relative to the given backup
+    void rebase(String backupName) {
+        this.baseline = backupName;
+    }
+
+    // Forgets everything tracked so far, for when state has been replaced by a restore
+    void reset(String backupName) {
+        students.clear();
+        courses.clear();
+        enrollments.clear();
+        this.baseline = backupName;
+    }
+
+    private static List<String> drain(Set<String> dirty) {
+        List<String> drained = new ArrayList<>();
+        for (String key : dirty) {
+            if (dirty.remove(key)) drained.add(key);
+        }
+        return drained;
+    }
+
+    private static String key(Enrollment enrollment) {
+        return enrollment.getStudent().getId() + '\u0000' + enrollment.getCourse().getCode();
+    }
+
+    static class Changes {
+        final List<String> studentIds;
+        final List<String> courseCodes;
+        final List<String> enrollmentKeys;
+
+        Changes(List<String> studentIds, List<String> courseCodes, List<String> enrollmentKeys) {
+            this.studentIds = studentIds;
+            this.courseCodes = courseCodes;
+            this.enrollmentKeys = enrollmentKeys;
+        }
+    }
+}
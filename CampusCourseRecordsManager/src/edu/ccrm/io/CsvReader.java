@@ -0,0 +1,121 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streaming CSV reader: decodes through a fixed char buffer and reuses one field array per record,
+// so memory stays bounded regardless of file size. Handles quoted fields, "" escapes and CRLF.
+class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final StringBuilder field = new StringBuilder(64);
+    private String[] fields = new String[16];
+    private int fieldCount;
+    private long recordCount;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    static CsvReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new CsvReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+    }
+
+    // Reads the next record into the reusable field array; false at end of input
+    boolean next() throws IOException {
+        fieldCount = 0;
+        field.setLength(0);
+        boolean inQuotes = false;
+        boolean started = false;
+
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (!started) return false;
+                endField();
+                recordCount++;
+                return true;
+            }
+            started = true;
+
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                endField();
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') read();
+                endField();
+                recordCount++;
+                return true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    int size() { return fieldCount; }
+
+    String get(int index) { return fields[index]; }
+
+    long getRecordCount() { return recordCount; }
+
+    boolean isBlankRecord() {
+        return fieldCount == 1 && fields[0].isBlank();
+    }
+
+    private void endField() {
+        if (fieldCount == fields.length) {
+            String[] grown = new String[fields.length * 2];
+            System.arraycopy(fields, 0, grown, 0, fields.length);
+            fields = grown;
+        }
+        fields[fieldCount++] = field.toString();
+        field.setLength(0);
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
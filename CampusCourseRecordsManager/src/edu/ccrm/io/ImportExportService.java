@@ -9,10 +9,11 @@ import edu.ccrm.service.EnrollmentService;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class ImportExportService {
 
@@ -26,183 +27,343 @@ public class ImportExportService {
         this.enrollmentService = EnrollmentService.getInstance();
     }
 
-    // Export students to CSV file using NIO.2
+    // Export students to CSV in id order, streaming rows from the live registry through a buffered writer
     public void exportStudentsToCSV(String filename) throws DataExportException {
-        try {
-            Path filePath = Path.of(filename);
-            List<String> lines = new ArrayList<>();
-
-            // CSV header
-            lines.add("ID,RegistrationNo,FullName,Email,Status,CreatedDate");
-
-            // Data rows
-            for (Student student : studentService.getAllStudents()) {
-                String line = String.format("%s,%s,%s,%s,%s,%s",
-                        student.getId(),
-                        student.getRegNo(),
-                        escapeCsvField(student.getFullName()),
-                        student.getEmail(),
-                        student.isActive() ? "ACTIVE" : "INACTIVE",
-                        student.getCreatedDate()
-                );
-                lines.add(line);
-            }
+        exportStudentsToCSV(filename, studentService.stream()::iterator);
+    }
+
+    public void exportStudentsToCSV(String filename, Iterable<Student> students) throws DataExportException {
+        Path filePath = Path.of(filename);
 
-            // Write to file using NIO.2
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            System.out.println("✓ Students exported to: " + filePath.toAbsolutePath());
+        try (CsvWriter csv = CsvWriter.open(filePath)) {
+            writeStudents(csv, students);
+            csv.flush();
+            System.out.println("✓ Students exported to: " + filePath.toAbsolutePath() + " - " + csv.summary());
 
         } catch (IOException e) {
             throw new DataExportException("Failed to export students to CSV: " + e.getMessage(), e);
         }
     }
 
-    // Export courses to CSV
+    // Export courses to CSV in code order, streamed like students
     public void exportCoursesToCSV(String filename) throws DataExportException {
-        try {
-            Path filePath = Path.of(filename);
-            List<String> lines = new ArrayList<>();
-
-            lines.add("Code,Title,Credits,InstructorID,Department,Semester,Status");
-
-            for (Course course : courseService.getAllCourses()) {
-                String instructorId = course.getInstructor() != null ? course.getInstructor().getId() : "";
-                String line = String.format("%s,%s,%d,%s,%s,%s,%s",
-                        course.getCode(),
-                        escapeCsvField(course.getTitle()),
-                        course.getCredits(),
-                        instructorId,
-                        escapeCsvField(course.getDepartment()),
-                        course.getSemester() != null ? course.getSemester().name() : "",
-                        course.isActive() ? "ACTIVE" : "INACTIVE"
-                );
-                lines.add(line);
-            }
+        exportCoursesToCSV(filename, courseService.stream()::iterator);
+    }
 
-            Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            System.out.println("✓ Courses exported to: " + filePath.toAbsolutePath());
+    public void exportCoursesToCSV(String filename, Iterable<Course> courses) throws DataExportException {
+        Path filePath = Path.of(filename);
+
+        try (CsvWriter csv = CsvWriter.open(filePath)) {
+            writeCourses(csv, courses);
+            csv.flush();
+            System.out.println("✓ Courses exported to: " + filePath.toAbsolutePath() + " - " + csv.summary());
 
         } catch (IOException e) {
             throw new DataExportException("Failed to export courses to CSV: " + e.getMessage(), e);
         }
     }
 
-    // Import students from CSV
-    public void importStudentsFromCSV(String filename) throws DataExportException {
-        try {
-            Path filePath = Path.of(filename);
+    // Export students with GPA >= minGpa, highest first, straight from the GPA index
+    public void exportDeansListToCSV(String filename, double minGpa) throws DataExportException {
+        Path filePath = Path.of(filename);
 
-            if (!Files.exists(filePath)) {
-                throw new DataExportException("File not found: " + filename);
-            }
+        try (CsvWriter csv = CsvWriter.open(filePath)) {
+            csv.header("ID,RegistrationNo,FullName,GPA");
 
-            List<String> lines = Files.readAllLines(filePath);
+            for (Student student : studentService.getStudentsWithGpaAbove(minGpa)) {
+                csv.field(student.getId())
+                        .field(student.getRegNo())
+                        .field(student.getFullName())
+                        .fieldTwoDecimals(student.calculateGPA())
+                        .endRow();
+            }
 
-            // Skip header line
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i);
-                if (line.trim().isEmpty()) continue;
+            csv.flush();
+            System.out.println("✓ Dean's list exported to: " + filePath.toAbsolutePath() + " - " + csv.summary());
 
-                String[] fields = parseCsvLine(line);
-                if (fields.length >= 5) {
-                    Student student = new Student(
-                            fields[0], // id
-                            fields[1], // regNo
-                            fields[2], // fullName
-                            fields[3]  // email
-                    );
+        } catch (IOException e) {
+            throw new DataExportException("Failed to export dean's list to CSV: " + e.getMessage(), e);
+        }
+    }
 
-                    if ("INACTIVE".equalsIgnoreCase(fields[4])) {
-                        student.setActive(false);
-                    }
+    // Per-course grade distribution, read from each course's running grade statistics
+    public void exportGradeDistributionToCSV(String filename) throws DataExportException {
+        Path filePath = Path.of(filename);
 
-                    studentService.addStudent(student);
+        try (CsvWriter csv = CsvWriter.open(filePath)) {
+            StringBuilder header = new StringBuilder("Code,Title,Graded,Average,StdDev,Min,Max");
+            for (Grade grade : Grade.values()) {
+                header.append(',').append(grade.name());
+            }
+            csv.header(header.toString());
+
+            Iterable<Course> courses = courseService.stream()::iterator;
+            for (Course course : courses) {
+                GradeStatistics.Summary stats = course.getGradeStatistics().summary();
+                csv.field(course.getCode())
+                        .field(course.getTitle())
+                        .field(stats.getCount())
+                        .fieldTwoDecimals(stats.getAverage())
+                        .fieldTwoDecimals(stats.getStandardDeviation())
+                        .fieldTwoDecimals(stats.getMin())
+                        .fieldTwoDecimals(stats.getMax());
+                for (Grade grade : Grade.values()) {
+                    csv.field(stats.getGradeCount(grade));
                 }
+                csv.endRow();
             }
 
-            System.out.println("✓ Students imported from: " + filePath.toAbsolutePath());
+            csv.flush();
+            System.out.println("✓ Grade distribution exported to: " + filePath.toAbsolutePath() + " - " + csv.summary());
+
+        } catch (IOException e) {
+            throw new DataExportException("Failed to export grade distribution to CSV: " + e.getMessage(), e);
+        }
+    }
+
+    // Import students from CSV, streaming records straight into StudentService
+    public void importStudentsFromCSV(String filename) throws DataExportException {
+        Path filePath = Path.of(filename);
+
+        if (!Files.exists(filePath)) {
+            throw new DataExportException("File not found: " + filename);
+        }
+
+        try (CsvReader reader = CsvReader.open(filePath)) {
+            long imported = readStudents(reader, studentService::addStudent);
+
+            System.out.println("✓ " + imported + " students imported from: " + filePath.toAbsolutePath());
 
         } catch (IOException e) {
             throw new DataExportException("Failed to import students from CSV: " + e.getMessage(), e);
         }
     }
 
-    // Import courses from CSV
+    // Import courses from CSV, streaming records straight into CourseService
     public void importCoursesFromCSV(String filename) throws DataExportException {
-        try {
-            Path filePath = Path.of(filename);
+        Path filePath = Path.of(filename);
 
-            if (!Files.exists(filePath)) {
-                throw new DataExportException("File not found: " + filename);
-            }
+        if (!Files.exists(filePath)) {
+            throw new DataExportException("File not found: " + filename);
+        }
 
-            List<String> lines = Files.readAllLines(filePath);
-
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i);
-                if (line.trim().isEmpty()) continue;
-
-                String[] fields = parseCsvLine(line);
-                if (fields.length >= 6) {
-                    Course.Builder builder = new Course.Builder(fields[0], fields[1])
-                            .credits(Integer.parseInt(fields[2]))
-                            .department(fields[4]);
-
-                    // Set semester if available
-                    if (!fields[5].isEmpty()) {
-                        try {
-                            builder.semester(Semester.valueOf(fields[5].toUpperCase()));
-                        } catch (IllegalArgumentException e) {
-                            System.out.println("Warning: Invalid semester: " + fields[5]);
-                        }
-                    }
+        try (CsvReader reader = CsvReader.open(filePath)) {
+            long imported = readCourses(reader, (course, instructorId) -> courseService.addCourse(course));
 
-                    Course course = builder.build();
+            System.out.println("✓ " + imported + " courses imported from: " + filePath.toAbsolutePath());
 
-                    if (fields.length > 6 && "INACTIVE".equalsIgnoreCase(fields[6])) {
-                        course.setActive(false);
-                    }
+        } catch (IOException e) {
+            throw new DataExportException("Failed to import courses from CSV: " + e.getMessage(), e);
+        }
+    }
+
+    // Row formats shared by file exports and backup archives
+    void writeStudents(CsvWriter csv, Iterable<Student> students) throws IOException {
+        csv.header("ID,RegistrationNo,FullName,Email,Status,CreatedDate");
+
+        for (Student student : students) {
+            csv.field(student.getId())
+                    .field(student.getRegNo())
+                    .field(student.getFullName())
+                    .field(student.getEmail())
+                    .field(student.isActive() ? "ACTIVE" : "INACTIVE")
+                    .field(student.getCreatedDate())
+                    .endRow();
+        }
+    }
 
-                    courseService.addCourse(course);
+    void writeCourses(CsvWriter csv, Iterable<Course> courses) throws IOException {
+        csv.header("Code,Title,Credits,InstructorID,Department,Semester,Status");
+
+        for (Course course : courses) {
+            csv.field(course.getCode())
+                    .field(course.getTitle())
+                    .field(course.getCredits())
+                    .field(course.getInstructor() != null ? course.getInstructor().getId() : "")
+                    .field(course.getDepartment())
+                    .field(course.getSemester() != null ? course.getSemester().name() : "")
+                    .field(course.isActive() ? "ACTIVE" : "INACTIVE")
+                    .endRow();
+        }
+    }
+
+    void writeInstructors(CsvWriter csv, Collection<Instructor> instructors) throws IOException {
+        csv.header("ID,FullName,Email,Department,CreatedDate");
+
+        for (Instructor instructor : instructors) {
+            csv.field(instructor.getId())
+                    .field(instructor.getFullName())
+                    .field(instructor.getEmail())
+                    .field(instructor.getDepartment())
+                    .field(instructor.getCreatedDate())
+                    .endRow();
+        }
+    }
+
+    // Marks are left blank until graded; removed rows record enrollments dropped since the parent backup
+    void writeEnrollments(CsvWriter csv, Collection<Enrollment> enrollments,
+                          Collection<EnrollmentRow> removed) throws IOException {
+        csv.header("StudentID,CourseCode,EnrollmentDate,Marks,Status");
+
+        for (Enrollment enrollment : enrollments) {
+            double marks = enrollment.getMarks();
+            csv.field(enrollment.getStudent().getId())
+                    .field(enrollment.getCourse().getCode())
+                    .field(enrollment.getEnrollmentDate())
+                    .field(marks >= 0 ? String.valueOf(marks) : "")
+                    .field("ENROLLED")
+                    .endRow();
+        }
+        for (EnrollmentRow row : removed) {
+            csv.field(row.studentId)
+                    .field(row.courseCode)
+                    .field("")
+                    .field("")
+                    .field("REMOVED")
+                    .endRow();
+        }
+    }
+
+    // Readers hand each parsed record to a sink, so callers decide whether it goes live or is staged
+    long readStudents(CsvReader reader, Consumer<Student> sink) throws IOException {
+        long imported = 0;
+
+        // Skip header line
+        reader.next();
+        while (reader.next()) {
+            if (reader.isBlankRecord()) continue;
+
+            if (reader.size() >= 5) {
+                Student student = new Student(
+                        reader.get(0), // id
+                        reader.get(1), // regNo
+                        reader.get(2), // fullName
+                        reader.get(3)  // email
+                );
+
+                if ("INACTIVE".equalsIgnoreCase(reader.get(4))) {
+                    student.setActive(false);
+                }
+                LocalDate createdDate = reader.size() > 5 ? parseDate(reader.get(5)) : null;
+                if (createdDate != null) {
+                    student.setCreatedDate(createdDate);
                 }
+
+                sink.accept(student);
+                imported++;
             }
+        }
+        return imported;
+    }
 
-            System.out.println("✓ Courses imported from: " + filePath.toAbsolutePath());
+    // The sink also receives the course's instructor ID (empty when unassigned) for later resolution
+    long readCourses(CsvReader reader, BiConsumer<Course, String> sink) throws IOException {
+        long imported = 0;
+
+        reader.next();
+        while (reader.next()) {
+            if (reader.isBlankRecord()) continue;
+
+            if (reader.size() >= 6) {
+                Course.Builder builder = new Course.Builder(reader.get(0), reader.get(1))
+                        .credits(Integer.parseInt(reader.get(2)))
+                        .department(reader.get(4));
+
+                // Set semester if available
+                String semester = reader.get(5);
+                if (!semester.isEmpty()) {
+                    try {
+                        builder.semester(Semester.valueOf(semester.toUpperCase()));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Warning: Invalid semester: " + semester);
+                    }
+                }
 
-        } catch (IOException e) {
-            throw new DataExportException("Failed to import courses from CSV: " + e.getMessage(), e);
+                Course course = builder.build();
+
+                if (reader.size() > 6 && "INACTIVE".equalsIgnoreCase(reader.get(6))) {
+                    course.setActive(false);
+                }
+
+                sink.accept(course, reader.get(3));
+                imported++;
+            }
         }
+        return imported;
     }
 
-    // Helper method to escape CSV fields
-    private String escapeCsvField(String field) {
-        if (field == null) return "";
-        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
+    long readInstructors(CsvReader reader, Consumer<Instructor> sink) throws IOException {
+        long imported = 0;
+
+        reader.next();
+        while (reader.next()) {
+            if (reader.isBlankRecord()) continue;
+
+            if (reader.size() >= 4) {
+                Instructor instructor = new Instructor(reader.get(0), reader.get(1), reader.get(2), reader.get(3));
+                LocalDate createdDate = reader.size() > 4 ? parseDate(reader.get(4)) : null;
+                if (createdDate != null) {
+                    instructor.setCreatedDate(createdDate);
+                }
+
+                sink.accept(instructor);
+                imported++;
+            }
         }
-        return field;
+        return imported;
     }
 
-    // Helper method to parse CSV line
-    private String[] parseCsvLine(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-        boolean inQuotes = false;
+    long readEnrollments(CsvReader reader, Consumer<EnrollmentRow> sink) throws IOException {
+        long imported = 0;
 
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
+        reader.next();
+        while (reader.next()) {
+            if (reader.isBlankRecord()) continue;
 
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(currentField.toString());
-                currentField.setLength(0);
-            } else {
-                currentField.append(c);
+            if (reader.size() >= 5) {
+                if ("REMOVED".equalsIgnoreCase(reader.get(4))) {
+                    sink.accept(EnrollmentRow.removed(reader.get(0), reader.get(1)));
+                } else {
+                    String marks = reader.get(3);
+                    sink.accept(new EnrollmentRow(reader.get(0), reader.get(1), LocalDate.parse(reader.get(2)),
+                            marks.isEmpty() ? -1 : Double.parseDouble(marks)));
+                }
+                imported++;
             }
         }
+        return imported;
+    }
+
+    // Hand-edited files may carry dates in other formats; those records keep their default date
+    private static LocalDate parseDate(String value) {
+        if (value.isEmpty()) return null;
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // An enrollment as stored in a file, before its student and course are resolved
+    static final class EnrollmentRow {
+        final String studentId;
+        final String courseCode;
+        final LocalDate enrollmentDate;  // null for a removed row
+        final double marks;              // negative when ungraded
+
+        EnrollmentRow(String studentId, String courseCode, LocalDate enrollmentDate, double marks) {
+            this.studentId = studentId;
+            this.courseCode = courseCode;
+            this.enrollmentDate = enrollmentDate;
+            this.marks = marks;
+        }
+
+        static EnrollmentRow removed(String studentId, String courseCode) {
+            return new EnrollmentRow(studentId, courseCode, null, -1);
+        }
+
+        boolean isRemoved() { return enrollmentDate == null; }
 
-        fields.add(currentField.toString());
-        return fields.toArray(new String[0]);
+        String key() { return studentId + '\u0000' + courseCode; }
     }
-}
+}
\ No newline at end of file
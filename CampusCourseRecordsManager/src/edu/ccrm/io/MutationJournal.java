@@ -0,0 +1,523 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.MutationListener;
+import edu.ccrm.service.StudentService;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead log of service mutations.
+// Record layout: payload length, CRC32 of the payload, then the payload (type byte and fields).
+// Every record carries the full new state of what it touches, so replaying a record twice is harmless.
+// Appends are buffered and written by a flusher thread. Under ALWAYS the caller waits for its record
+// to be forced, and everything appended during one force shares the next (group commit).
+public class MutationJournal implements MutationListener, Closeable {
+    public enum FsyncPolicy {
+        ALWAYS,  // callers wait until their record is on disk
+        GROUP,   // records are forced together every flush interval
+        NEVER    // records are handed to the OS every flush interval, never forced
+    }
+
+    private static final byte STUDENT = 1;
+    private static final byte COURSE = 2;
+    private static final byte ENROLL = 3;
+    private static final byte UNENROLL = 4;
+    private static final byte GRADE = 5;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FsyncPolicy policy;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private FileChannel channel;
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer spare = new RecordBuffer();
+    private long appendedCount;
+    private long durableCount;
+    private boolean flushing;  // The flusher holds a batch it is writing to channel outside the lock
+    private IOException failure;
+    private boolean closed;
+
+    public MutationJournal(Path path, FsyncPolicy policy, long flushIntervalMillis) throws IOException {
+        this.path = path;
+        this.policy = policy;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.channel = openForAppend(path);
+        this.flusher = new Thread(this::flushLoop, "ccrm-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public Path getPath() { return path; }
+    public FsyncPolicy getPolicy() { return policy; }
+
+    public long getAppendedCount() {
+        synchronized (lock) {
+            return appendedCount;
+        }
+    }
+
+    // MutationListener: each mutation becomes one record
+    @Override
+    public void studentAdded(Student student) {
+        studentUpdated(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        append(STUDENT, out -> {
+            out.writeUTF(student.getId());
+            out.writeUTF(student.getRegNo());
+            out.writeUTF(student.getFullName());
+            out.writeUTF(student.getEmail());
+            out.writeBoolean(student.isActive());
+            out.writeLong(student.getCreatedDate().toEpochDay());
+        });
+    }
+
+    @Override
+    public void courseAdded(Course course) {
+        courseUpdated(course);
+    }
+
+    @Override
+    public void courseUpdated(Course course) {
+        append(COURSE, out -> {
+            out.writeUTF(course.getCode());
+            out.writeUTF(course.getTitle());
+            out.writeInt(course.getCredits());
+            writeNullable(out, course.getDepartment());
+            out.writeByte(course.getSemester() != null ? course.getSemester().ordinal() : -1);
+            out.writeBoolean(course.isActive());
+            Instructor instructor = course.getInstructor();
+            out.writeBoolean(instructor != null);
+            if (instructor != null) {
+                out.writeUTF(instructor.getId());
+                out.writeUTF(instructor.getFullName());
+                out.writeUTF(instructor.getEmail());
+                writeNullable(out, instructor.getDepartment());
+                out.writeLong(instructor.getCreatedDate().toEpochDay());
+            }
+        });
+    }
+
+    @Override
+    public void enrollmentAdded(Enrollment enrollment) {
+        append(ENROLL, out -> {
+            out.writeUTF(enrollment.getStudent().getId());
+            out.writeUTF(enrollment.getCourse().getCode());
+            out.writeLong(enrollment.getEnrollmentDate().toEpochDay());
+            out.writeDouble(enrollment.getMarks());
+        });
+    }
+
+    @Override
+    public void enrollmentRemoved(Enrollment enrollment) {
+        append(UNENROLL, out -> {
+            out.writeUTF(enrollment.getStudent().getId());
+            out.writeUTF(enrollment.getCourse().getCode());
+        });
+    }
+
+    @Override
+    public void gradeRecorded(Enrollment enrollment) {
+        append(GRADE, out -> {
+            out.writeUTF(enrollment.getStudent().getId());
+            out.writeUTF(enrollment.getCourse().getCode());
+            out.writeDouble(enrollment.getMarks());
+        });
+    }
+
+    // Blocks until every record appended so far has been written (and forced unless NEVER)
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appendedCount;
+            lock.notifyAll();
+            awaitDurable(target);
+        }
+    }
+
+    // Moves the current journal to archived and continues in a fresh file at the same path.
+    // Records appended after this call land in the new file.
+    public void rotate(Path archived) throws IOException {
+        synchronized (lock) {
+            if (closed) throw new IOException("Journal is closed");
+            lock.notifyAll();
+            awaitIdle();
+
+            // Appenders and the flusher both need the lock, so the channel stays untouched until the swap is done
+            channel.force(true);
+            channel.close();
+            Files.move(path, archived, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = openForAppend(path);
+        }
+    }
+
+    // Flushes what is pending and stops the flusher
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            try {
+                if (failure == null) channel.force(true);
+            } finally {
+                channel.close();
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    // Applies every intact record in the file to the services and returns the length of the valid
+    // prefix; a torn or corrupt tail (from a crash mid-write) ends the replay
+    public static Replay replay(Path path) throws IOException {
+        Replayer replayer = new Replayer();
+        long validLength = 0;
+        int records = 0;
+
+        if (!Files.exists(path)) return new Replay(0, 0, 0);
+        long fileLength = Files.size(path);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 256 * 1024))) {
+            CRC32 crc = new CRC32();
+            byte[] payload = new byte[256];
+            while (validLength + RECORD_HEADER_SIZE <= fileLength) {
+                int length = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (length <= 0 || length > MAX_RECORD_SIZE || validLength + RECORD_HEADER_SIZE + length > fileLength) break;
+
+                if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+                in.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if (crc.getValue() != checksum) break;
+
+                replayer.apply(new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+                validLength += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+        }
+        return new Replay(records, validLength, fileLength);
+    }
+
+    // Outcome of replaying one journal file
+    public static class Replay {
+        private final int recordCount;
+        private final long validLength;
+        private final long fileLength;
+
+        Replay(int recordCount, long validLength, long fileLength) {
+            this.recordCount = recordCount;
+            this.validLength = validLength;
+            this.fileLength = fileLength;
+        }
+
+        public int getRecordCount() { return recordCount; }
+        public long getValidLength() { return validLength; }
+        public boolean isTruncated() { return validLength < fileLength; }
+    }
+
+    // Cuts a torn tail left by a crash so new records follow the last intact one
+    public static void truncate(Path path, long validLength) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            file.truncate(validLength);
+            file.force(true);
+        }
+    }
+
+    private void append(byte type, RecordWriter writer) {
+        byte[] payload;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writer.write(out);
+            payload = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode journal record", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            if (failure != null) throw new UncheckedIOException("Journal is unavailable", failure);
+
+            pending.writeRecord(payload, (int) crc.getValue());
+            long sequence = ++appendedCount;
+            if (policy == FsyncPolicy.ALWAYS) {
+                lock.notifyAll();
+                try {
+                    awaitDurable(sequence);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Journal write failed", e);
+                }
+            }
+        }
+    }
+
+    // Caller holds lock
+    private void awaitDurable(long sequence) throws IOException {
+        boolean interrupted = false;
+        while (durableCount < sequence && failure == null && flusher.isAlive()) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+
+    // Caller holds lock. Returns once every appended record has been written and the flusher has
+    // handed back its batch, so nothing is written to channel until the lock is released.
+    private void awaitIdle() throws IOException {
+        boolean interrupted = false;
+        while ((pending.size() > 0 || flushing) && failure == null && flusher.isAlive()) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+        if (pending.size() > 0 || flushing) throw new IOException("Journal flusher has stopped");
+    }
+
+    private void flushLoop() {
+        while (true) {
+            RecordBuffer batch;
+            FileChannel out;
+            long target;
+            synchronized (lock) {
+                try {
+                    if (policy == FsyncPolicy.ALWAYS) {
+                        while (pending.size() == 0 && !closed) lock.wait();
+                    } else if (!closed) {
+                        lock.wait(flushIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (pending.size() == 0) {
+                    if (closed) {
+                        lock.notifyAll();
+                        return;
+                    }
+                    continue;
+                }
+                batch = pending;
+                pending = spare;
+                spare = null;
+                out = channel;
+                target = appendedCount;
+                flushing = true;
+            }
+
+            try {
+                ByteBuffer buffer = batch.asByteBuffer();
+                while (buffer.hasRemaining()) out.write(buffer);
+                if (policy != FsyncPolicy.NEVER) out.force(false);
+            } catch (IOException e) {
+                System.err.println("Journal write failed: " + e.getMessage());
+                synchronized (lock) {
+                    failure = e;
+                    flushing = false;
+                    lock.notifyAll();
+                }
+                return;
+            }
+
+            synchronized (lock) {
+                batch.reset();
+                spare = batch;
+                durableCount = target;
+                flushing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static FileChannel openForAppend(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Growable byte buffer of framed records
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(64 * 1024);
+        }
+
+        void writeRecord(byte[] payload, int checksum) {
+            writeInt(payload.length);
+            writeInt(checksum);
+            write(payload, 0, payload.length);
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    // Applies decoded records as upserts: existing records are updated in place, missing ones created
+    private static final class Replayer {
+        private final StudentService studentService = StudentService.getInstance();
+        private final CourseService courseService = CourseService.getInstance();
+        private final EnrollmentService enrollmentService = EnrollmentService.getInstance();
+        private final Map<String, Instructor> instructors = new HashMap<>();
+
+        Replayer() {
+            courseService.stream()
+                    .filter(course -> course.getInstructor() != null)
+                    .forEach(course -> instructors.putIfAbsent(course.getInstructor().getId(), course.getInstructor()));
+        }
+
+        void apply(DataInputStream in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case STUDENT:
+                    applyStudent(in);
+                    break;
+                case COURSE:
+                    applyCourse(in);
+                    break;
+                case ENROLL:
+                    applyEnroll(in);
+                    break;
+                case UNENROLL:
+                    enrollmentService.removeEnrollment(studentService.getStudent(in.readUTF()),
+                            courseService.getCourse(in.readUTF()));
+                    break;
+                case GRADE:
+                    enrollmentService.recordGrade(studentService.getStudent(in.readUTF()),
+                            courseService.getCourse(in.readUTF()), in.readDouble());
+                    break;
+                default:
+                    throw new IOException("Unknown journal record type: " + type);
+            }
+        }
+
+        private void applyStudent(DataInputStream in) throws IOException {
+            String id = in.readUTF();
+            String regNo = in.readUTF();
+            String fullName = in.readUTF();
+            String email = in.readUTF();
+            boolean active = in.readBoolean();
+            LocalDate createdDate = LocalDate.ofEpochDay(in.readLong());
+
+            Student student = studentService.getStudent(id);
+            if (student == null) {
+                student = new Student(id, regNo, fullName, email);
+                student.setActive(active);
+                student.setCreatedDate(createdDate);
+                studentService.addStudent(student);
+            } else {
+                student.setRegNo(regNo);
+                student.setActive(active);
+                student.setCreatedDate(createdDate);
+                studentService.updateStudent(id, fullName, email);
+            }
+        }
+
+        private void applyCourse(DataInputStream in) throws IOException {
+            String code = in.readUTF();
+            String title = in.readUTF();
+            int credits = in.readInt();
+            String department = readNullable(in);
+            int semesterOrdinal = in.readByte();
+            Semester semester = semesterOrdinal >= 0 ? Semester.values()[semesterOrdinal] : null;
+            boolean active = in.readBoolean();
+            Instructor instructor = null;
+            if (in.readBoolean()) {
+                String id = in.readUTF();
+                String fullName = in.readUTF();
+                String email = in.readUTF();
+                String instructorDepartment = readNullable(in);
+                LocalDate createdDate = LocalDate.ofEpochDay(in.readLong());
+
+                instructor = instructors.computeIfAbsent(id, i -> new Instructor(i, fullName, email, instructorDepartment));
+                instructor.setFullName(fullName);
+                instructor.setEmail(email);
+                instructor.setDepartment(instructorDepartment);
+                instructor.setCreatedDate(createdDate);
+            }
+
+            Course course = courseService.getCourse(code);
+            if (course == null) {
+                course = new Course.Builder(code, title)
+                        .credits(credits)
+                        .instructor(instructor)
+                        .semester(semester)
+                        .department(department)
+                        .build();
+                course.setActive(active);
+                courseService.addCourse(course);
+            } else {
+                courseService.updateCourse(code, title, credits, department);
+                course.setSemester(semester);
+                course.setInstructor(instructor);
+                course.setActive(active);
+            }
+        }
+
+        private void applyEnroll(DataInputStream in) throws IOException {
+            Student student = studentService.getStudent(in.readUTF());
+            Course course = courseService.getCourse(in.readUTF());
+            LocalDate enrollmentDate = LocalDate.ofEpochDay(in.readLong());
+            double marks = in.readDouble();
+            if (student == null || course == null || enrollmentService.isEnrolled(student, course)) return;
+
+            Enrollment enrollment = new Enrollment(student, course, enrollmentDate);
+            if (marks >= 0) enrollment.recordMarks(marks);
+            enrollmentService.addEnrollment(enrollment);
+        }
+    }
+}
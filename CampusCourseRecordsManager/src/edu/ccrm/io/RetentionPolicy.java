@@ -0,0 +1,58 @@
+package edu.ccrm.io;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+
+// Grandfather-father-son retention: the newest backups, plus the newest backup of each of the most
+// recent hours, days and ISO weeks. A backup is kept if any rule selects it.
+class RetentionPolicy {
+    private final int last;
+    private final int hourly;
+    private final int daily;
+    private final int weekly;
+
+    RetentionPolicy(int last, int hourly, int daily, int weekly) {
+        // The newest backup is always kept, it is the parent of the next increment
+        this.last = Math.max(1, last);
+        this.hourly = hourly;
+        this.daily = daily;
+        this.weekly = weekly;
+    }
+
+    // Names of the backups to keep
+    Set<String> retained(Collection<BackupCatalog.Entry> entries) {
+        List<BackupCatalog.Entry> newestFirst = new ArrayList<>(entries);
+        newestFirst.sort(Comparator.comparing((BackupCatalog.Entry entry) -> entry.created)
+                .thenComparing(entry -> entry.name).reversed());
+
+        Set<String> keep = new HashSet<>();
+        for (int i = 0; i < Math.min(last, newestFirst.size()); i++) {
+            keep.add(newestFirst.get(i).name);
+        }
+        keepNewestPerPeriod(newestFirst, hourly, created -> created.truncatedTo(ChronoUnit.HOURS), keep);
+        keepNewestPerPeriod(newestFirst, daily, created -> created.truncatedTo(ChronoUnit.DAYS), keep);
+        keepNewestPerPeriod(newestFirst, weekly, created -> created.truncatedTo(ChronoUnit.DAYS)
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), keep);
+        return keep;
+    }
+
+    private static void keepNewestPerPeriod(List<BackupCatalog.Entry> newestFirst, int periods,
+                                            Function<LocalDateTime, LocalDateTime> period, Set<String> keep) {
+        Set<LocalDateTime> seen = new HashSet<>();
+        for (BackupCatalog.Entry entry : newestFirst) {
+            if (seen.add(period.apply(entry.created))) {
+                if (seen.size() > periods) break;
+                keep.add(entry.name);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RetentionPolicy[Last: %d, Hourly: %d, Daily: %d, Weekly: %d]", last, hourly, daily, weekly);
+    }
+}
@@ -0,0 +1,334 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentService;
+import edu.ccrm.service.ServiceState;
+import edu.ccrm.service.Persistable;
+import edu.ccrm.service.StudentService;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Compact binary snapshot of students, courses, instructors and enrollments.
+// Layout: fixed header (magic, version, counts, body length, CRC32 of body), then a body of
+// varint-encoded records whose strings point into a dictionary written at the start of the body.
+public class SnapshotService implements Persistable<SnapshotService.Header> {
+    private static final int MAGIC = 0x43435253; // "CCRS"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 5 * 4 + 8 + 8;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    // Dictionary length of the entry standing for a null field, such as a course without a department
+    private static final int NULL_LENGTH = -1;
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+
+    public SnapshotService() {
+        this.studentService = StudentService.getInstance();
+        this.courseService = CourseService.getInstance();
+        this.enrollmentService = EnrollmentService.getInstance();
+    }
+
+    // Counts and checksum stored at the front of every snapshot
+    public static class Header {
+        private final long createdAt;
+        private final int dictionarySize;
+        private final int instructorCount;
+        private final int studentCount;
+        private final int courseCount;
+        private final int enrollmentCount;
+        private final long bodyLength;
+        private final long checksum;
+
+        Header(long createdAt, int dictionarySize, int instructorCount, int studentCount, int courseCount,
+               int enrollmentCount, long bodyLength, long checksum) {
+            this.createdAt = createdAt;
+            this.dictionarySize = dictionarySize;
+            this.instructorCount = instructorCount;
+            this.studentCount = studentCount;
+            this.courseCount = courseCount;
+            this.enrollmentCount = enrollmentCount;
+            this.bodyLength = bodyLength;
+            this.checksum = checksum;
+        }
+
+        public long getCreatedAt() { return createdAt; }
+        public int getDictionarySize() { return dictionarySize; }
+        public int getInstructorCount() { return instructorCount; }
+        public int getStudentCount() { return studentCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+        public long getBodyLength() { return bodyLength; }
+        public long getChecksum() { return checksum; }
+
+        @Override
+        public String toString() {
+            return String.format("Snapshot[Students: %d, Courses: %d, Instructors: %d, Enrollments: %d, Strings: %d, Bytes: %d]",
+                    studentCount, courseCount, instructorCount, enrollmentCount, dictionarySize, HEADER_SIZE + bodyLength);
+        }
+    }
+
+    // Writes the current service state; the file is written beside the target and moved into place
+    @Override
+    public void saveToFile(String filename) throws IOException {
+        Path target = Path.of(filename);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        List<Student> students = studentService.getAllStudents();
+        List<Course> courses = courseService.getAllCourses();
+        Map<String, Instructor> instructors = new LinkedHashMap<>();
+        for (Course course : courses) {
+            if (course.getInstructor() != null) {
+                instructors.putIfAbsent(course.getInstructor().getId(), course.getInstructor());
+            }
+        }
+
+        // First pass: dictionary of every string referenced by a record
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Instructor instructor : instructors.values()) {
+            intern(dictionary, instructor.getId(), instructor.getFullName(), instructor.getEmail(), instructor.getDepartment());
+        }
+        for (Student student : students) {
+            intern(dictionary, student.getId(), student.getRegNo(), student.getFullName(), student.getEmail());
+        }
+        for (Course course : courses) {
+            intern(dictionary, course.getCode(), course.getTitle(), course.getDepartment());
+        }
+
+        Map<String, Integer> courseIndex = new HashMap<>(courses.size() * 2);
+        for (int i = 0; i < courses.size(); i++) courseIndex.put(courses.get(i).getCode(), i);
+
+        // Second pass: body through a CRC, then the header once lengths are known
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            SnapshotOutput out = new SnapshotOutput(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), crc));
+
+            for (String value : dictionary.keySet()) {
+                if (value == null) {
+                    out.writeVarInt(NULL_LENGTH);
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+
+            for (Instructor instructor : instructors.values()) {
+                out.writeVarInt(dictionary.get(instructor.getId()));
+                out.writeVarInt(dictionary.get(instructor.getFullName()));
+                out.writeVarInt(dictionary.get(instructor.getEmail()));
+                out.writeVarInt(dictionary.get(instructor.getDepartment()));
+                out.writeVarLong(instructor.getCreatedDate().toEpochDay());
+            }
+
+            for (Student student : students) {
+                out.writeVarInt(dictionary.get(student.getId()));
+                out.writeVarInt(dictionary.get(student.getRegNo()));
+                out.writeVarInt(dictionary.get(student.getFullName()));
+                out.writeVarInt(dictionary.get(student.getEmail()));
+                out.writeByte(student.isActive() ? 1 : 0);
+                out.writeVarLong(student.getCreatedDate().toEpochDay());
+            }
+
+            for (Course course : courses) {
+                out.writeVarInt(dictionary.get(course.getCode()));
+                out.writeVarInt(dictionary.get(course.getTitle()));
+                out.writeVarInt(course.getCredits());
+                out.writeVarInt(course.getInstructor() != null ? dictionary.get(course.getInstructor().getId()) + 1 : 0);
+                out.writeByte(course.getSemester() != null ? course.getSemester().ordinal() + 1 : 0);
+                out.writeVarInt(dictionary.get(course.getDepartment()));
+                out.writeByte(course.isActive() ? 1 : 0);
+            }
+
+            int enrollmentCount = 0;
+            for (int s = 0; s < students.size(); s++) {
+                for (Enrollment enrollment : students.get(s).getEnrollments()) {
+                    Integer course = courseIndex.get(enrollment.getCourse().getCode());
+                    if (course == null) continue;
+                    out.writeVarInt(s);
+                    out.writeVarInt(course);
+                    out.writeVarLong(enrollment.getEnrollmentDate().toEpochDay());
+                    out.writeDouble(enrollment.getMarks());
+                    enrollmentCount++;
+                }
+            }
+            out.flush();
+            long bodyLength = channel.position() - HEADER_SIZE;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(dictionary.size()).putInt(instructors.size()).putInt(students.size())
+                    .putInt(courses.size()).putInt(enrollmentCount)
+                    .putLong(bodyLength).putLong(crc.getValue())
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Memory-maps the snapshot, verifies it, then swaps the rebuilt state into all services.
+    // The rebuild is not reported to mutation listeners.
+    @Override
+    public Header loadFromFile(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Header header = readHeader(buffer);
+
+            ByteBuffer body = buffer.slice(HEADER_SIZE, (int) header.bodyLength);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != header.checksum) {
+                throw new IOException("Snapshot checksum mismatch: " + filename);
+            }
+
+            String[] strings = new String[header.dictionarySize];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readVarInt(body);
+                if (length == NULL_LENGTH) continue;
+                if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                body.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            Map<String, Instructor> instructors = new HashMap<>(header.instructorCount * 2);
+            for (int i = 0; i < header.instructorCount; i++) {
+                Instructor instructor = new Instructor(strings[readVarInt(body)], strings[readVarInt(body)],
+                        strings[readVarInt(body)], strings[readVarInt(body)]);
+                instructor.setCreatedDate(LocalDate.ofEpochDay(readVarLong(body)));
+                instructors.put(instructor.getId(), instructor);
+            }
+
+            Student[] students = new Student[header.studentCount];
+            for (int i = 0; i < students.length; i++) {
+                Student student = new Student(strings[readVarInt(body)], strings[readVarInt(body)],
+                        strings[readVarInt(body)], strings[readVarInt(body)]);
+                student.setActive(body.get() != 0);
+                student.setCreatedDate(LocalDate.ofEpochDay(readVarLong(body)));
+                students[i] = student;
+            }
+
+            Semester[] semesters = Semester.values();
+            Course[] courses = new Course[header.courseCount];
+            for (int i = 0; i < courses.length; i++) {
+                Course.Builder builder = new Course.Builder(strings[readVarInt(body)], strings[readVarInt(body)])
+                        .credits(readVarInt(body));
+                int instructor = readVarInt(body);
+                if (instructor > 0) builder.instructor(instructors.get(strings[instructor - 1]));
+                int semester = body.get();
+                if (semester > 0) builder.semester(semesters[semester - 1]);
+                Course course = builder.department(strings[readVarInt(body)]).build();
+                course.setActive(body.get() != 0);
+                courses[i] = course;
+            }
+
+            Enrollment[] enrollments = new Enrollment[header.enrollmentCount];
+            for (int i = 0; i < enrollments.length; i++) {
+                Student student = students[readVarInt(body)];
+                Enrollment enrollment = new Enrollment(student, courses[readVarInt(body)],
+                        LocalDate.ofEpochDay(readVarLong(body)));
+                double marks = body.getDouble();
+                if (marks >= 0) enrollment.recordMarks(marks);
+                enrollments[i] = enrollment;
+            }
+
+            ServiceState.replace(Arrays.asList(students), Arrays.asList(courses), Arrays.asList(enrollments));
+            return header;
+        }
+    }
+
+    // Checks that every enrollment refers to registered records and GPA totals are consistent
+    @Override
+    public boolean validateData() {
+        boolean linked = studentService.stream().allMatch(student -> student.getEnrollments().stream()
+                .allMatch(enrollment -> courseService.getCourse(enrollment.getCourse().getCode()) == enrollment.getCourse()
+                        && enrollmentService.getEnrollment(student, enrollment.getCourse()) == enrollment));
+        return linked && studentService.findStudentsWithInconsistentGpa().isEmpty();
+    }
+
+    public Header readHeader(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+            buffer.flip();
+            return readHeader(buffer);
+        }
+    }
+
+    private static Header readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a CCRM snapshot");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + buffer.getShort(4));
+        }
+        Header header = new Header(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20), buffer.getInt(24),
+                buffer.getInt(28), buffer.getInt(32), buffer.getLong(36), buffer.getLong(44));
+        if (buffer.capacity() > HEADER_SIZE && HEADER_SIZE + header.bodyLength > buffer.capacity()) {
+            throw new IOException("Snapshot is truncated");
+        }
+        return header;
+    }
+
+    private static void intern(Map<String, Integer> dictionary, String... values) {
+        for (String value : values) {
+            dictionary.putIfAbsent(value, dictionary.size());
+        }
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (raw >>> 1) ^ -(raw & 1); // zig-zag
+    }
+
+    // DataOutputStream with zig-zag varints
+    private static final class SnapshotOutput extends DataOutputStream {
+        SnapshotOutput(OutputStream out) {
+            super(out);
+        }
+
+        void writeVarInt(int value) throws IOException {
+            writeVarLong(value);
+        }
+
+        void writeVarLong(long value) throws IOException {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            write((int) zigzag);
+        }
+    }
+}
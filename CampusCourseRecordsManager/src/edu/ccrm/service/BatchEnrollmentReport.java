@@ -0,0 +1,35 @@
+package edu.ccrm.service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-request results of StudentService.enrollAll, in submission order
+public class BatchEnrollmentReport {
+    private final List<EnrollmentResult> results;
+    private final Map<EnrollmentResult.Status, Integer> counts;
+
+    BatchEnrollmentReport(List<EnrollmentResult> results) {
+        this.results = Collections.unmodifiableList(results);
+        this.counts = new EnumMap<>(EnrollmentResult.Status.class);
+        for (EnrollmentResult result : results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+        }
+    }
+
+    public List<EnrollmentResult> getResults() { return results; }
+
+    public int getCount(EnrollmentResult.Status status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public int getEnrolledCount() { return getCount(EnrollmentResult.Status.ENROLLED); }
+    public int getRejectedCount() { return results.size() - getEnrolledCount(); }
+
+    @Override
+    public String toString() {
+        return String.format("BatchEnrollmentReport[Requests: %d, Enrolled: %d, Rejected: %d, %s]",
+                results.size(), getEnrolledCount(), getRejectedCount(), counts);
+    }
+}
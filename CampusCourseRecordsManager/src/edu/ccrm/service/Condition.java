@@ -0,0 +1,177 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// A structured filter the query planner can inspect, unlike an opaque Predicate.
+// Leaves come from Field (eq, between, atLeast, atMost, startsWith) and combine with and/or.
+public abstract class Condition<T> {
+
+    Condition() {
+    }
+
+    public abstract boolean test(T item);
+
+    // Nested ANDs are flattened into one term list, so the planner sees every conjunct at the top
+    // level however the condition was built up
+    @SafeVarargs
+    public static <T> Condition<T> and(Condition<T>... conditions) {
+        // Copied element by element, so the caller's array never escapes
+        List<Condition<T>> terms = new ArrayList<>(conditions.length);
+        for (Condition<T> condition : conditions) {
+            if (Objects.requireNonNull(condition) instanceof And) terms.addAll(((And<T>) condition).getTerms());
+            else terms.add(condition);
+        }
+        return terms.size() == 1 ? terms.get(0) : new And<>(terms);
+    }
+
+    // Nested ORs are flattened the same way
+    @SafeVarargs
+    public static <T> Condition<T> or(Condition<T>... conditions) {
+        List<Condition<T>> terms = new ArrayList<>(conditions.length);
+        for (Condition<T> condition : conditions) {
+            if (Objects.requireNonNull(condition) instanceof Or) terms.addAll(((Or<T>) condition).getTerms());
+            else terms.add(condition);
+        }
+        return terms.size() == 1 ? terms.get(0) : new Or<>(terms);
+    }
+
+    // A comparison on one field
+    abstract static class Leaf<T> extends Condition<T> {
+        abstract Field<T, ?> getField();
+    }
+
+    static final class Equals<T, V extends Comparable<? super V>> extends Leaf<T> {
+        private final Field<T, V> field;
+        private final V value;
+
+        Equals(Field<T, V> field, V value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        Field<T, V> getField() { return field; }
+        V getValue() { return value; }
+
+        @Override
+        public boolean test(T item) {
+            return value.equals(field.get(item));
+        }
+
+        @Override
+        public String toString() {
+            return field + " = " + literal(value);
+        }
+    }
+
+    // Inclusive range; a null bound is open
+    static final class Range<T, V extends Comparable<? super V>> extends Leaf<T> {
+        private final Field<T, V> field;
+        private final V min;
+        private final V max;
+
+        Range(Field<T, V> field, V min, V max) {
+            this.field = field;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        Field<T, V> getField() { return field; }
+        V getMin() { return min; }
+        V getMax() { return max; }
+
+        @Override
+        public boolean test(T item) {
+            V value = field.get(item);
+            if (value == null) return false;
+            return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+        }
+
+        @Override
+        public String toString() {
+            if (min == null) return field + " <= " + literal(max);
+            if (max == null) return field + " >= " + literal(min);
+            return field + " BETWEEN " + literal(min) + " AND " + literal(max);
+        }
+    }
+
+    static final class Prefix<T> extends Leaf<T> {
+        private final Field<T, String> field;
+        private final String prefix;
+
+        Prefix(Field<T, String> field, String prefix) {
+            this.field = field;
+            this.prefix = prefix;
+        }
+
+        @Override
+        Field<T, String> getField() { return field; }
+        String getPrefix() { return prefix; }
+
+        @Override
+        public boolean test(T item) {
+            String value = field.get(item);
+            return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+        }
+
+        @Override
+        public String toString() {
+            return field + " STARTS WITH " + literal(prefix);
+        }
+    }
+
+    static final class And<T> extends Condition<T> {
+        private final List<Condition<T>> terms;
+
+        And(List<Condition<T>> terms) {
+            this.terms = Collections.unmodifiableList(terms);
+        }
+
+        List<Condition<T>> getTerms() { return terms; }
+
+        @Override
+        public boolean test(T item) {
+            for (Condition<T> term : terms) {
+                if (!term.test(item)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(String::valueOf).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    static final class Or<T> extends Condition<T> {
+        private final List<Condition<T>> terms;
+
+        Or(List<Condition<T>> terms) {
+            this.terms = Collections.unmodifiableList(terms);
+        }
+
+        List<Condition<T>> getTerms() { return terms; }
+
+        @Override
+        public boolean test(T item) {
+            for (Condition<T> term : terms) {
+                if (term.test(item)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(String::valueOf).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+
+    private static String literal(Object value) {
+        return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,19 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+
+// Queryable course fields. CODE, DEPARTMENT, SEMESTER and INSTRUCTOR_ID are indexed.
+public final class CourseFields {
+    public static final Field<Course, String> CODE = new Field<>("code", String.class, Course::getCode);
+    public static final Field<Course, String> TITLE = new Field<>("title", String.class, Course::getTitle);
+    public static final Field<Course, String> DEPARTMENT = new Field<>("department", String.class, Course::getDepartment);
+    public static final Field<Course, Semester> SEMESTER = new Field<>("semester", Semester.class, Course::getSemester);
+    public static final Field<Course, String> INSTRUCTOR_ID = new Field<>("instructorId", String.class,
+            course -> course.getInstructor() != null ? course.getInstructor().getId() : null);
+    public static final Field<Course, Integer> CREDITS = new Field<>("credits", Integer.class, Course::getCredits);
+    public static final Field<Course, Boolean> ACTIVE = new Field<>("active", Boolean.class, Course::isActive);
+
+    private CourseFields() {
+    }
+}
@@ -0,0 +1,150 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.SymbolTable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Secondary indexes over the course catalog: department (by case-folded symbol id), semester and
+// instructor id
+class CourseIndex {
+    private final Map<Integer, Set<Course>> byDepartment = new ConcurrentHashMap<>();
+    private final Map<Semester, Set<Course>> bySemester = new EnumMap<>(Semester.class);
+    private final Map<String, Set<Course>> byInstructorId = new ConcurrentHashMap<>();
+
+    CourseIndex() {
+        // Semester buckets are created once and never removed, so the EnumMap itself is read-only
+        for (Semester semester : Semester.values()) {
+            bySemester.put(semester, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void add(Course course) {
+        addTo(byDepartment, departmentKey(course.getDepartment()), course);
+        if (course.getSemester() != null) bySemester.get(course.getSemester()).add(course);
+        addTo(byInstructorId, instructorKey(course.getInstructor()), course);
+    }
+
+    void remove(Course course) {
+        removeFrom(byDepartment, departmentKey(course.getDepartment()), course);
+        if (course.getSemester() != null) bySemester.get(course.getSemester()).remove(course);
+        removeFrom(byInstructorId, instructorKey(course.getInstructor()), course);
+    }
+
+    void clear() {
+        byDepartment.clear();
+        bySemester.values().forEach(Set::clear);
+        byInstructorId.clear();
+    }
+
+    void departmentChanged(Course course, String oldDepartment) {
+        removeFrom(byDepartment, departmentKey(oldDepartment), course);
+        addTo(byDepartment, departmentKey(course.getDepartment()), course);
+    }
+
+    void semesterChanged(Course course, Semester oldSemester) {
+        if (oldSemester != null) bySemester.get(oldSemester).remove(course);
+        if (course.getSemester() != null) bySemester.get(course.getSemester()).add(course);
+    }
+
+    void instructorChanged(Course course, Instructor oldInstructor) {
+        removeFrom(byInstructorId, instructorKey(oldInstructor), course);
+        addTo(byInstructorId, instructorKey(course.getInstructor()), course);
+    }
+
+    // A department never interned has no courses, and the lookup allocates nothing
+    List<Course> byDepartment(String department) {
+        int key = SymbolTable.getInstance().findFoldedId(department);
+        return snapshot(key == SymbolTable.NONE ? null : byDepartment.get(key));
+    }
+
+    List<Course> bySemester(Semester semester) {
+        return snapshot(semester == null ? null : bySemester.get(semester));
+    }
+
+    List<Course> byInstructor(Instructor instructor) {
+        return snapshot(byInstructorId.get(instructorKey(instructor)));
+    }
+
+    // Equality lookups for the query planner, one access per index
+    List<IndexAccess<Course>> accesses() {
+        return Arrays.asList(
+                new BucketAccess<>("departmentIndex", CourseFields.DEPARTMENT, byDepartment,
+                        department -> {
+                            int key = SymbolTable.getInstance().findFoldedId((String) department);
+                            return key == SymbolTable.NONE ? null : key;
+                        }),
+                new BucketAccess<>("semesterIndex", CourseFields.SEMESTER, bySemester, semester -> (Semester) semester),
+                new BucketAccess<>("instructorIndex", CourseFields.INSTRUCTOR_ID, byInstructorId, id -> (String) id));
+    }
+
+    private static Integer departmentKey(String department) {
+        return department == null ? null : SymbolTable.getInstance().foldedId(department);
+    }
+
+    private static String instructorKey(Instructor instructor) {
+        return instructor == null ? null : instructor.getId();
+    }
+
+    private static <K> void addTo(Map<K, Set<Course>> index, K key, Course course) {
+        if (key == null) return;
+        index.compute(key, (k, bucket) -> {
+            Set<Course> result = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+            result.add(course);
+            return result;
+        });
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Course>> index, K key, Course course) {
+        if (key == null) return;
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(course);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private static List<Course> snapshot(Set<Course> bucket) {
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+    }
+
+    // Serves equality on one field from a bucket map; bucket sizes are exact estimates
+    private static final class BucketAccess<K> implements IndexAccess<Course> {
+        private final String name;
+        private final Field<Course, ?> field;
+        private final Map<K, Set<Course>> buckets;
+        private final Function<Object, K> key;
+
+        BucketAccess(String name, Field<Course, ?> field, Map<K, Set<Course>> buckets, Function<Object, K> key) {
+            this.name = name;
+            this.field = field;
+            this.buckets = buckets;
+            this.key = key;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long estimate(Condition.Leaf<Course> condition) {
+            if (condition.getField() != field || !(condition instanceof Condition.Equals)) return -1;
+            Set<Course> bucket = bucket(condition);
+            return bucket == null ? 0 : bucket.size();
+        }
+
+        @Override
+        public Collection<Course> fetch(Condition.Leaf<Course> condition) {
+            return snapshot(bucket(condition));
+        }
+
+        private Set<Course> bucket(Condition.Leaf<Course> condition) {
+            K bucketKey = key.apply(((Condition.Equals<Course, ?>) condition).getValue());
+            return bucketKey == null ? null : buckets.get(bucketKey);
+        }
+    }
+}
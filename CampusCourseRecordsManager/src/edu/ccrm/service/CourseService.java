@@ -2,6 +2,7 @@ package edu.ccrm.service;
 
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseChangeListener;
 import edu.ccrm.domain.Semester;
 import edu.ccrm.domain.Instructor;
 
@@ -9,16 +10,20 @@ import edu.ccrm.domain.Instructor;
 import java.util.function.Predicate;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CourseService implements Searchable<Course> {
-    private final Map<String, Course> courses;
+    private final MutationBus mutationBus;
 
     // Singleton pattern
     private static CourseService instance;
 
     private CourseService() {
-        this.courses = new HashMap<>();
+        this.mutationBus = MutationBus.getInstance();
     }
 
     public static synchronized CourseService getInstance() {
@@ -31,58 +36,76 @@ public class CourseService implements Searchable<Course> {
     // Course CRUD operations
     public void addCourse(Course course) {
         if (course == null) throw new IllegalArgumentException("Course cannot be null");
-        courses.put(course.getCode(), course);
+        registry().register(course);
+        mutationBus.courseAdded(course);
+    }
+
+    // Drops all courses and their indexes
+    public void clear() {
+        ServiceState.replaceCourses(new Registry());
+    }
+
+    // Builds a registry for a replacement data set without touching the live one
+    Registry prepare(Collection<Course> courses) {
+        Registry prepared = new Registry();
+        courses.forEach(prepared::register);
+        return prepared;
+    }
+
+
+    // The registry of the current service state; read it once per operation
+    private static Registry registry() {
+        return ServiceState.current().courses;
     }
 
     public Course getCourse(String code) {
-        return courses.get(code);
+        return registry().courses.get(code);
     }
 
     public List<Course> getAllCourses() {
-        return new ArrayList<>(courses.values());
+        return new ArrayList<>(registry().courses.values());
     }
 
     public boolean updateCourse(String code, String title, int credits, String department) {
-        Course course = courses.get(code);
-        if (course != null) {
+        Course course = registry().courses.get(code);
+        if (course == null) return false;
+
+        // Updates to one course are serialized so listeners see them in the order applied
+        synchronized (course) {
             course.setTitle(title);
             course.setCredits(credits);
             course.setDepartment(department);
-            return true;
+            mutationBus.courseUpdated(course);
         }
-        return false;
+        return true;
     }
 
     public boolean deactivateCourse(String code) {
-        Course course = courses.get(code);
-        if (course != null) {
+        Course course = registry().courses.get(code);
+        if (course == null) return false;
+
+        synchronized (course) {
             course.setActive(false);
-            return true;
+            mutationBus.courseUpdated(course);
         }
-        return false;
+        return true;
     }
 
-    // Search methods using Streams API
+    // Index-backed searches, cost proportional to the result size
     public List<Course> searchByInstructor(Instructor instructor) {
-        return courses.values().stream()
-                .filter(c -> instructor.equals(c.getInstructor()))
-                .collect(Collectors.toList());
+        return registry().courseIndex.byInstructor(instructor);
     }
 
     public List<Course> searchByDepartment(String department) {
-        return courses.values().stream()
-                .filter(c -> c.getDepartment().equalsIgnoreCase(department))
-                .collect(Collectors.toList());
+        return registry().courseIndex.byDepartment(department);
     }
 
     public List<Course> searchBySemester(Semester semester) {
-        return courses.values().stream()
-                .filter(c -> semester.equals(c.getSemester()))
-                .collect(Collectors.toList());
+        return registry().courseIndex.bySemester(semester);
     }
 
     public List<Course> getActiveCourses() {
-        return courses.values().stream()
+        return registry().courses.values().stream()
                 .filter(Course::isActive)
                 .collect(Collectors.toList());
     }
@@ -90,20 +113,87 @@ public class CourseService implements Searchable<Course> {
     // Searchable interface implementation
     @Override
     public List<Course> search(Predicate<Course> condition) {
-        return courses.values().stream()
+        return registry().courses.values().stream()
                 .filter(condition)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Course findById(String id) {
-        return courses.get(id);
+        return registry().courses.get(id);
     }
 
     @Override
     public List<Course> findAll() {
-        return new ArrayList<>(courses.values());
+        return new ArrayList<>(registry().courses.values());
     }
-}
 
+    @Override
+    public Stream<Course> stream() {
+        return registry().coursesByCode.values().stream();
+    }
 
+    @Override
+    public Page<Course> page(String cursor, int size, Predicate<Course> filter) {
+        return Page.of(registry().coursesByCode, cursor, size, filter);
+    }
+
+    @Override
+    public List<Course> query(Query<Course> query) {
+        return registry().planner.plan(query).execute();
+    }
+
+    @Override
+    public QueryPlan<Course> explain(Query<Course> query) {
+        return registry().planner.plan(query);
+    }
+
+    // Courses and their index, swapped as a unit when the whole data set is replaced.
+    // Each registry keeps its own index current for the courses registered in it.
+    static final class Registry implements CourseChangeListener {
+        private final Map<String, Course> courses = new ConcurrentHashMap<>();
+        // Same records in key order, for streamed and paged listings; lookups stay on the hash map
+        private final ConcurrentNavigableMap<String, Course> coursesByCode = new ConcurrentSkipListMap<>();
+        private final CourseIndex courseIndex = new CourseIndex();
+        private final QueryPlanner<Course> planner = new QueryPlanner<>("courses", courses.values(), accesses(),
+                Comparator.comparing(Course::getCode));
+
+        private List<IndexAccess<Course>> accesses() {
+            List<IndexAccess<Course>> accesses = new ArrayList<>();
+            accesses.add(new PrimaryKeyAccess<>(CourseFields.CODE, courses));
+            accesses.addAll(courseIndex.accesses());
+            return accesses;
+        }
+
+        // Whether this exact object is the course registered under its code
+        boolean contains(Course course) {
+            return courses.get(course.getCode()) == course;
+        }
+
+        private void register(Course course) {
+            Course previous = courses.put(course.getCode(), course);
+            coursesByCode.put(course.getCode(), course);
+            if (previous != null && previous != course) {
+                previous.setChangeListener(null);
+                courseIndex.remove(previous);
+            }
+            course.setChangeListener(this);
+            courseIndex.add(course);
+        }
+
+        @Override
+        public void departmentChanged(Course course, String oldDepartment) {
+            courseIndex.departmentChanged(course, oldDepartment);
+        }
+
+        @Override
+        public void semesterChanged(Course course, Semester oldSemester) {
+            courseIndex.semesterChanged(course, oldSemester);
+        }
+
+        @Override
+        public void instructorChanged(Course course, Instructor oldInstructor) {
+            courseIndex.instructorChanged(course, oldInstructor);
+        }
+    }
+}
\ No newline at end of file
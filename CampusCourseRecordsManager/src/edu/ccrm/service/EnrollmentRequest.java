@@ -0,0 +1,22 @@
+package edu.ccrm.service;
+
+import java.util.Objects;
+
+// One (student, course) pair submitted to StudentService.enrollAll
+public class EnrollmentRequest {
+    private final String studentId;
+    private final String courseCode;
+
+    public EnrollmentRequest(String studentId, String courseCode) {
+        this.studentId = Objects.requireNonNull(studentId);
+        this.courseCode = Objects.requireNonNull(courseCode);
+    }
+
+    public String getStudentId() { return studentId; }
+    public String getCourseCode() { return courseCode; }
+
+    @Override
+    public String toString() {
+        return String.format("EnrollmentRequest[Student: %s, Course: %s]", studentId, courseCode);
+    }
+}
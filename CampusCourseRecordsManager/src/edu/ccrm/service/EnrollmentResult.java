@@ -0,0 +1,32 @@
+package edu.ccrm.service;
+
+// Outcome of a single request in a batch enrollment
+public class EnrollmentResult {
+    public enum Status {
+        ENROLLED,
+        DUPLICATE,
+        CREDIT_LIMIT_EXCEEDED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND
+    }
+
+    private final EnrollmentRequest request;
+    private final Status status;
+    private final String message;
+
+    public EnrollmentResult(EnrollmentRequest request, Status status, String message) {
+        this.request = request;
+        this.status = status;
+        this.message = message;
+    }
+
+    public EnrollmentRequest getRequest() { return request; }
+    public Status getStatus() { return status; }
+    public String getMessage() { return message; }
+    public boolean isSuccess() { return status == Status.ENROLLED; }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s: %s", request, status, message);
+    }
+}
@@ -1,21 +1,33 @@
 package edu.ccrm.service;
 
+import edu.ccrm.domain.CompactEnrollmentStore;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Student;
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.StorageMode;
 
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 public class EnrollmentService {
-    private final List<Enrollment> enrollments;
+    // Single enrollment store. The (student, course) hash index is part of ServiceState; the per-student
+    // and per-course indexes are the lists held by Student and Course, written only through this service.
+
+    // Per-student striped locks; every mutation of a student's enrollments runs under its stripe
+    private final StripedLock studentLocks;
+    private final MutationBus mutationBus;
+    private volatile StorageMode storageMode = StorageMode.OBJECTS;
+    private volatile Path slabDirectory;
 
     // Singleton pattern
     private static EnrollmentService instance;
 
     private EnrollmentService() {
-        this.enrollments = new ArrayList<>();
+        this.studentLocks = new StripedLock(Runtime.getRuntime().availableProcessors() * 64);
+        this.mutationBus = MutationBus.getInstance();
     }
 
     public static synchronized EnrollmentService getInstance() {
@@ -25,55 +37,163 @@ public class EnrollmentService {
         return instance;
     }
 
-    public void addEnrollment(Enrollment enrollment) {
+    // Lock guarding check-then-act sequences on one student's enrollments
+    Lock lockFor(Student student) {
+        return studentLocks.forKey(student.getId());
+    }
+
+    // Adds the enrollment to the key index and to the student and course lists. Returns false for a
+    // duplicate, or when the student or course is not the one registered in the current state.
+    public boolean addEnrollment(Enrollment enrollment) {
         if (enrollment == null) throw new IllegalArgumentException("Enrollment cannot be null");
-        enrollments.add(enrollment);
+
+        Student student = enrollment.getStudent();
+        Course course = enrollment.getCourse();
+        Lock lock = lockFor(student);
+        lock.lock();
+        try {
+            ServiceState.State state = ServiceState.current();
+            if (!state.students.contains(student) || !state.courses.contains(course)) {
+                return false;
+            }
+            if (state.enrollments.putIfAbsent(key(student, course), enrollment) != null) {
+                return false;
+            }
+
+            if (state.store != null) enrollment.moveTo(state.store);
+            student.addEnrollment(enrollment);
+            mutationBus.enrollmentAdded(enrollment);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Enrollment removeEnrollment(Student student, Course course) {
+        if (student == null || course == null) return null;
+
+        Lock lock = lockFor(student);
+        lock.lock();
+        try {
+            ServiceState.State state = ServiceState.current();
+            if (!state.students.contains(student)) return null;
+            Enrollment enrollment = state.enrollments.remove(key(student, course));
+            if (enrollment == null) return null;
+
+            student.removeEnrollment(enrollment);
+            enrollment.release();
+            mutationBus.enrollmentRemoved(enrollment);
+            return enrollment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops the enrollment index and store; callers clear StudentService and CourseService alongside
+    public void clear() {
+        ServiceState.replaceEnrollments(new ConcurrentHashMap<>(), newStore());
+    }
+
+    // Where enrollment data is kept, -Dccrm.storage.mode=objects|compact|direct|mapped. Takes effect
+    // as an empty data set, so it can only change while no enrollments are loaded. MAPPED slabs are
+    // backed by files in slabDirectory, or in the temporary-file directory when it is null.
+    public synchronized void setStorageMode(StorageMode mode, Path slabDirectory) {
+        if (getEnrollmentCount() > 0) {
+            throw new IllegalStateException("Storage mode can only change while no enrollments are loaded");
+        }
+        this.storageMode = Objects.requireNonNull(mode);
+        this.slabDirectory = slabDirectory;
+        clear();
+    }
+
+    public void setStorageMode(StorageMode mode) {
+        setStorageMode(mode, null);
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    // Store holding the current enrollments' rows, or null when they keep their own records
+    public CompactEnrollmentStore getStore() {
+        return ServiceState.current().store;
+    }
+
+    // A fresh store for a new data set, or null in OBJECTS mode. Each data set gets its own store, so
+    // rows of a replaced data set go away with it.
+    CompactEnrollmentStore newStore() {
+        StorageMode mode = storageMode;
+        return mode == StorageMode.OBJECTS ? null : CompactEnrollmentStore.create(mode, slabDirectory);
+    }
+
+    // Builds the key index for a replacement data set, moves each enrollment into the store if there
+    // is one and attaches it to its student and course. The students and courses must not be
+    // registered with the live services yet.
+    Map<String, Enrollment> prepare(Collection<Enrollment> enrollments, CompactEnrollmentStore store) {
+        Map<String, Enrollment> prepared = new ConcurrentHashMap<>(Math.max(16, enrollments.size() * 4 / 3 + 1));
+        for (Enrollment enrollment : enrollments) {
+            if (prepared.putIfAbsent(key(enrollment.getStudent(), enrollment.getCourse()), enrollment) == null) {
+                if (store != null) enrollment.moveTo(store);
+                enrollment.getStudent().addEnrollment(enrollment);
+            }
+        }
+        return prepared;
+    }
+
+    public Enrollment getEnrollment(Student student, Course course) {
+        if (student == null || course == null) return null;
+        return ServiceState.current().enrollments.get(key(student, course));
+    }
+
+    public boolean isEnrolled(Student student, Course course) {
+        return getEnrollment(student, course) != null;
     }
 
     public List<Enrollment> getEnrollmentsByStudent(Student student) {
-        return enrollments.stream()
-                .filter(e -> e.getStudent().equals(student))
-                .collect(Collectors.toList());
+        return new ArrayList<>(student.getEnrollments());
     }
 
     public List<Enrollment> getEnrollmentsByCourse(Course course) {
-        return enrollments.stream()
-                .filter(e -> e.getCourse().equals(course))
-                .collect(Collectors.toList());
+        return new ArrayList<>(course.getEnrollments());
+    }
+
+    public int getEnrollmentCount() {
+        return ServiceState.current().enrollments.size();
     }
 
     public boolean recordGrade(Student student, Course course, double marks) {
-        Optional<Enrollment> enrollmentOpt = enrollments.stream()
-                .filter(e -> e.getStudent().equals(student) && e.getCourse().equals(course))
-                .findFirst();
+        if (student == null || course == null) return false;
+
+        Lock lock = lockFor(student);
+        lock.lock();
+        try {
+            Enrollment enrollment = getEnrollment(student, course);
+            if (enrollment == null) return false;
 
-        if (enrollmentOpt.isPresent()) {
-            Enrollment enrollment = enrollmentOpt.get();
             enrollment.recordMarks(marks);
+            mutationBus.gradeRecorded(enrollment);
             return true;
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
 
     public Map<Course, Grade> getStudentGrades(Student student) {
-        return enrollments.stream()
-                .filter(e -> e.getStudent().equals(student) && e.isGraded())
-                .collect(Collectors.toMap(
-                        Enrollment::getCourse,
-                        Enrollment::getGrade
-                ));
+        Map<Course, Grade> grades = new HashMap<>();
+        for (Enrollment enrollment : student.getEnrollments()) {
+            if (enrollment.isGraded()) {
+                grades.put(enrollment.getCourse(), enrollment.getGrade());
+            }
+        }
+        return grades;
     }
 
+    // Read from the course's running grade statistics
     public double getCourseAverage(Course course) {
-        List<Enrollment> courseEnrollments = getEnrollmentsByCourse(course).stream()
-                .filter(Enrollment::isGraded)
-                .collect(Collectors.toList());
-
-        if (courseEnrollments.isEmpty()) return 0.0;
+        return course.getGradeStatistics().summary().getAverage();
+    }
 
-        return courseEnrollments.stream()
-                .mapToDouble(Enrollment::getMarks)
-                .average()
-                .orElse(0.0);
+    private static String key(Student student, Course course) {
+        return student.getId() + '\u0000' + course.getCode();
     }
 }
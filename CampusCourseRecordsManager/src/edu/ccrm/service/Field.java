@@ -0,0 +1,56 @@
+package edu.ccrm.service;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+// A named, comparable attribute of T that queries can filter and sort on.
+// The fields of each entity are the constants in StudentFields and CourseFields.
+public final class Field<T, V extends Comparable<? super V>> {
+    private final String name;
+    private final Class<V> type;
+    private final Function<T, V> getter;
+
+    Field(String name, Class<V> type, Function<T, V> getter) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+    }
+
+    public String getName() { return name; }
+
+    V get(T item) {
+        return getter.apply(item);
+    }
+
+    public Condition<T> eq(V value) {
+        return new Condition.Equals<>(this, Objects.requireNonNull(value));
+    }
+
+    // Inclusive bounds
+    public Condition<T> between(V min, V max) {
+        return new Condition.Range<>(this, Objects.requireNonNull(min), Objects.requireNonNull(max));
+    }
+
+    public Condition<T> atLeast(V min) {
+        return new Condition.Range<>(this, Objects.requireNonNull(min), null);
+    }
+
+    public Condition<T> atMost(V max) {
+        return new Condition.Range<>(this, null, Objects.requireNonNull(max));
+    }
+
+    // Case-insensitive, text fields only
+    public Condition<T> startsWith(String prefix) {
+        if (type != String.class) {
+            throw new IllegalArgumentException("Field " + name + " is not a text field");
+        }
+        @SuppressWarnings("unchecked")
+        Field<T, String> textField = (Field<T, String>) this;
+        return new Condition.Prefix<>(textField, Objects.requireNonNull(prefix));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
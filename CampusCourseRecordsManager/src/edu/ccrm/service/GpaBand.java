@@ -0,0 +1,32 @@
+package edu.ccrm.service;
+
+// GPA ranges used by the distribution report
+public enum GpaBand {
+    A("A (9.0+)", 9.0, 10.0),
+    B("B (8.0-8.9)", 8.0, 9.0),
+    C("C (7.0-7.9)", 7.0, 8.0),
+    D("D (Below 7.0)", 0.0, 7.0),
+    U("U (Ungraded)", 0.0, 0.0);
+
+    private final String label;
+    private final double min;
+    private final double max;
+
+    GpaBand(String label, double min, double max) {
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getLabel() { return label; }
+    double getMin() { return min; }
+    double getMax() { return max; }
+
+    public static GpaBand of(double gpa) {
+        if (gpa >= 9.0) return A;
+        else if (gpa >= 8.0) return B;
+        else if (gpa >= 7.0) return C;
+        else if (gpa > 0) return D;
+        else return U;
+    }
+}
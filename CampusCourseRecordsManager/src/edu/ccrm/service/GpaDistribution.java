@@ -0,0 +1,53 @@
+package edu.ccrm.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Student counts per GPA band, moved between bands as GPAs change
+class GpaDistribution {
+    private static final GpaBand[] BANDS = GpaBand.values();
+
+    private final AtomicLongArray counts = new AtomicLongArray(BANDS.length);
+
+    void add(double gpa) {
+        counts.incrementAndGet(GpaBand.of(gpa).ordinal());
+    }
+
+    void remove(double gpa) {
+        counts.decrementAndGet(GpaBand.of(gpa).ordinal());
+    }
+
+    void update(double oldGpa, double newGpa) {
+        GpaBand oldBand = GpaBand.of(oldGpa);
+        GpaBand newBand = GpaBand.of(newGpa);
+        if (oldBand != newBand) {
+            counts.decrementAndGet(oldBand.ordinal());
+            counts.incrementAndGet(newBand.ordinal());
+        }
+    }
+
+    // Students with a GPA in [min, max], assuming GPAs spread evenly across each band
+    long estimate(double min, double max) {
+        double total = 0;
+        for (GpaBand band : BANDS) {
+            long count = counts.get(band.ordinal());
+            double low = Math.max(min, band.getMin());
+            double high = Math.min(max, band.getMax());
+            if (count == 0 || high < low) continue;
+            double width = band.getMax() - band.getMin();
+            // A point or the ungraded band counts the whole band, at least one row otherwise
+            total += width == 0 || high == low ? count : Math.max(1, count * (high - low) / width);
+        }
+        return (long) Math.ceil(total);
+    }
+
+    // Every band in order, including empty ones
+    Map<GpaBand, Long> snapshot() {
+        Map<GpaBand, Long> snapshot = new EnumMap<>(GpaBand.class);
+        for (GpaBand band : BANDS) {
+            snapshot.put(band, counts.get(band.ordinal()));
+        }
+        return snapshot;
+    }
+}
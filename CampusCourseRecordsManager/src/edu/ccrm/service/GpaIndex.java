@@ -0,0 +1,135 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// GPA-ordered secondary index keyed by (gpa, id), so range and top/bottom-K queries are scans.
+// For the query planner it serves GPA ranges, in order, with estimates from the GPA distribution.
+class GpaIndex implements OrderedIndexAccess<Student> {
+    private final ConcurrentSkipListMap<Key, Student> index = new ConcurrentSkipListMap<>();
+    private final GpaDistribution distribution;
+
+    GpaIndex(GpaDistribution distribution) {
+        this.distribution = distribution;
+    }
+
+    void add(Student student) {
+        index.put(new Key(student.calculateGPA(), student.getId()), student);
+    }
+
+    void remove(Student student) {
+        index.remove(new Key(student.calculateGPA(), student.getId()));
+    }
+
+    void update(Student student, double oldGpa, double newGpa) {
+        index.remove(new Key(oldGpa, student.getId()));
+        index.put(new Key(newGpa, student.getId()), student);
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    // Highest GPA first, stopping at the first student below minGpa
+    List<Student> atLeast(double minGpa) {
+        return new ArrayList<>(index.tailMap(new Key(minGpa, ""), true).descendingMap().values());
+    }
+
+    List<Student> between(double minGpa, double maxGpa) {
+        return new ArrayList<>(index.subMap(new Key(minGpa, ""), true, new Key(Math.nextUp(maxGpa), ""), false)
+                .descendingMap().values());
+    }
+
+    List<Student> top(int k) {
+        return firstK(index.descendingMap().values().iterator(), k);
+    }
+
+    List<Student> bottom(int k) {
+        return firstK(index.values().iterator(), k);
+    }
+
+    @Override
+    public String getName() {
+        return "gpaIndex";
+    }
+
+    @Override
+    public long estimate(Condition.Leaf<Student> condition) {
+        double[] bounds = bounds(condition);
+        return bounds == null ? -1 : distribution.estimate(bounds[0], bounds[1]);
+    }
+
+    @Override
+    public Collection<Student> fetch(Condition.Leaf<Student> condition) {
+        return new ArrayList<>(scanInOrder(condition, false));
+    }
+
+    @Override
+    public Field<Student, ?> getOrderField() {
+        return StudentFields.GPA;
+    }
+
+    // A live view of the index between the condition's bounds
+    @Override
+    public Collection<Student> scanInOrder(Condition.Leaf<Student> condition, boolean descending) {
+        double[] bounds = condition == null ? new double[] {-Double.MAX_VALUE, Double.MAX_VALUE} : bounds(condition);
+        NavigableMap<Key, Student> range = index.subMap(new Key(bounds[0], ""), true,
+                new Key(Math.nextUp(bounds[1]), ""), false);
+        return (descending ? range.descendingMap() : range).values();
+    }
+
+    // Inclusive [min, max] of a GPA equality or range, or null for any other condition
+    private static double[] bounds(Condition.Leaf<Student> condition) {
+        if (condition.getField() != StudentFields.GPA) return null;
+        if (condition instanceof Condition.Equals) {
+            double gpa = (Double) ((Condition.Equals<Student, ?>) condition).getValue();
+            return new double[] {gpa, gpa};
+        }
+        if (condition instanceof Condition.Range) {
+            Condition.Range<Student, ?> range = (Condition.Range<Student, ?>) condition;
+            return new double[] {
+                    range.getMin() != null ? (Double) range.getMin() : -Double.MAX_VALUE,
+                    range.getMax() != null ? (Double) range.getMax() : Double.MAX_VALUE};
+        }
+        return null;
+    }
+
+    private static List<Student> firstK(Iterator<Student> it, int k) {
+        List<Student> result = new ArrayList<>(Math.max(0, Math.min(k, 1024)));
+        while (it.hasNext() && result.size() < k) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final double gpa;
+        private final String id;
+
+        Key(double gpa, String id) {
+            this.gpa = gpa;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int cmp = Double.compare(gpa, other.gpa);
+            return cmp != 0 ? cmp : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Double.compare(gpa, key.gpa) == 0 && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(gpa) + id.hashCode();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.ccrm.service;
+
+import java.util.Collection;
+
+// One index as seen by the query planner
+interface IndexAccess<T> {
+    String getName();
+
+    // Estimated rows matching the leaf condition, or -1 when this index cannot serve it
+    long estimate(Condition.Leaf<T> condition);
+
+    // Every row matching the leaf; may include extra rows, which the planner filters out
+    Collection<T> fetch(Condition.Leaf<T> condition);
+}
@@ -0,0 +1,78 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Fans service mutations out to registered listeners such as the journal
+public class MutationBus {
+    private final List<MutationListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean paused;
+
+    // Singleton pattern
+    private static MutationBus instance;
+
+    private MutationBus() {}
+
+    public static synchronized MutationBus getInstance() {
+        if (instance == null) {
+            instance = new MutationBus();
+        }
+        return instance;
+    }
+
+    public void addListener(MutationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MutationListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Bulk loads and replays rebuild state wholesale and are not reported while paused
+    public void setPaused(boolean paused) { this.paused = paused; }
+    public boolean isPaused() { return paused; }
+
+    void studentAdded(Student student) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.studentAdded(student);
+    }
+
+    void studentUpdated(Student student) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.studentUpdated(student);
+    }
+
+    void courseAdded(Course course) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.courseAdded(course);
+    }
+
+    void courseUpdated(Course course) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.courseUpdated(course);
+    }
+
+    void enrollmentAdded(Enrollment enrollment) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.enrollmentAdded(enrollment);
+    }
+
+    void enrollmentRemoved(Enrollment enrollment) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.enrollmentRemoved(enrollment);
+    }
+
+    void gradeRecorded(Enrollment enrollment) {
+        if (paused) return;
+        for (MutationListener listener : listeners) listener.gradeRecorded(enrollment);
+    }
+
+    // Not suppressed by pause: listeners tracking changes against earlier state must start over
+    void stateReplaced() {
+        for (MutationListener listener : listeners) listener.stateReplaced();
+    }
+}
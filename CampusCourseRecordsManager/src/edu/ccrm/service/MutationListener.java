@@ -0,0 +1,25 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+// Notified by the services after a mutation has been applied, in the order it was applied
+public interface MutationListener {
+    default void studentAdded(Student student) {}
+
+    default void studentUpdated(Student student) {}
+
+    default void courseAdded(Course course) {}
+
+    default void courseUpdated(Course course) {}
+
+    default void enrollmentAdded(Enrollment enrollment) {}
+
+    default void enrollmentRemoved(Enrollment enrollment) {}
+
+    default void gradeRecorded(Enrollment enrollment) {}
+
+    // Every service's contents were replaced at once (snapshot load or restore); sent even while paused
+    default void stateReplaced() {}
+}
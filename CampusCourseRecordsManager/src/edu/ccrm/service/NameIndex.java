@@ -0,0 +1,280 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trigram substring index over normalized student names and emails. For the query planner it
+// serves equality and prefix conditions on name or email as substring candidates.
+class NameIndex implements IndexAccess<Student> {
+    // Match ranks, lower is better
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int EMAIL = 4;
+    private static final int NO_MATCH = -1;
+
+    // Postings hold ascending entry ordinals; removed or replaced entries leave a null tombstone
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private int tombstones;
+
+    // Writers are exclusive, searches share the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void add(Student student) {
+        Entry entry = new Entry(student, normalize(student.getFullName()), normalize(student.getEmail()));
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(student.getId());
+            if (previous != null) {
+                bury(previous);
+            }
+            post(entry);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Student student) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(student.getId());
+            if (ordinal != null && entries.get(ordinal).student == student) {
+                ordinals.remove(student.getId());
+                bury(ordinal);
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            entries.clear();
+            ordinals.clear();
+            tombstones = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ranked substring search; only candidates sharing every query trigram are verified
+    List<Student> search(String query, boolean includeEmail, int limit) {
+        String q = normalize(query);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Entry entry : candidates(q)) {
+                int rank = rank(entry.name, q);
+                if (rank == NO_MATCH && includeEmail && entry.email.contains(q)) {
+                    rank = EMAIL;
+                }
+                if (rank != NO_MATCH) {
+                    matches.add(new Match(rank, entry));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.rank)
+                .thenComparingInt(m -> m.entry.name.length())
+                .thenComparing(m -> m.entry.name));
+
+        List<Student> result = new ArrayList<>(Math.min(matches.size(), limit));
+        for (Match match : matches) {
+            if (result.size() >= limit) break;
+            result.add(match.entry.student);
+        }
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return "nameIndex";
+    }
+
+    // Size of the shortest posting list of the text's trigrams, a bound on the candidates
+    @Override
+    public long estimate(Condition.Leaf<Student> condition) {
+        String text = text(condition);
+        if (text == null) return -1;
+        String q = normalize(text);
+
+        lock.readLock().lock();
+        try {
+            if (q.length() < 3) return entries.size() - tombstones;
+            long smallest = Long.MAX_VALUE;
+            for (Long gram : trigrams(q)) {
+                IntList posting = postings.get(gram);
+                if (posting == null) return 0;
+                smallest = Math.min(smallest, posting.size);
+            }
+            return smallest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Student> fetch(Condition.Leaf<Student> condition) {
+        return search(text(condition), condition.getField() == StudentFields.EMAIL, Integer.MAX_VALUE);
+    }
+
+    // The searched text of a name or email equality or prefix, or null for any other condition
+    private static String text(Condition.Leaf<Student> condition) {
+        if (condition.getField() != StudentFields.NAME && condition.getField() != StudentFields.EMAIL) return null;
+        if (condition instanceof Condition.Prefix) return ((Condition.Prefix<Student>) condition).getPrefix();
+        if (condition instanceof Condition.Equals) return (String) ((Condition.Equals<Student, ?>) condition).getValue();
+        return null;
+    }
+
+    private List<Entry> candidates(String q) {
+        List<Entry> candidates = new ArrayList<>();
+
+        // Queries shorter than a trigram cannot use the postings
+        if (q.length() < 3) {
+            for (Entry entry : entries) {
+                if (entry != null) candidates.add(entry);
+            }
+            return candidates;
+        }
+
+        List<IntList> lists = new ArrayList<>();
+        for (Long gram : trigrams(q)) {
+            IntList posting = postings.get(gram);
+            if (posting == null) return candidates;
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        // Merge intersection of sorted ordinal lists, driven by the shortest
+        int[] cursors = new int[lists.size()];
+        IntList smallest = lists.get(0);
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.values[i];
+            for (int l = 1; l < lists.size(); l++) {
+                IntList other = lists.get(l);
+                int c = cursors[l];
+                while (c < other.size && other.values[c] < ordinal) c++;
+                cursors[l] = c;
+                if (c == other.size) break outer;
+                if (other.values[c] != ordinal) continue outer;
+            }
+            Entry entry = entries.get(ordinal);
+            if (entry != null) candidates.add(entry);
+        }
+        return candidates;
+    }
+
+    private void post(Entry entry) {
+        int ordinal = entries.size();
+        entries.add(entry);
+        ordinals.put(entry.student.getId(), ordinal);
+        postGrams(entry.name, ordinal);
+        postGrams(entry.email, ordinal);
+    }
+
+    private void postGrams(String text, int ordinal) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            IntList posting = postings.computeIfAbsent(trigram(text, i), g -> new IntList());
+            // Ordinals only grow, so a repeated trigram of this entry is always the last value
+            if (posting.size == 0 || posting.values[posting.size - 1] != ordinal) {
+                posting.add(ordinal);
+            }
+        }
+    }
+
+    private void bury(int ordinal) {
+        entries.set(ordinal, null);
+        tombstones++;
+    }
+
+    // Rebuilds the postings once more than half of the ordinals are dead
+    private void compactIfSparse() {
+        if (tombstones < 1024 || tombstones * 2 < entries.size()) return;
+
+        List<Entry> live = new ArrayList<>(entries.size() - tombstones);
+        for (Entry entry : entries) {
+            if (entry != null) live.add(entry);
+        }
+        postings.clear();
+        entries.clear();
+        ordinals.clear();
+        tombstones = 0;
+        for (Entry entry : live) {
+            post(entry);
+        }
+    }
+
+    private static int rank(String name, String q) {
+        if (name.equals(q)) return EXACT;
+        if (name.startsWith(q)) return PREFIX;
+        int index = name.indexOf(q);
+        if (index < 0) return NO_MATCH;
+        if (name.charAt(index - 1) == ' ' || name.contains(" " + q)) return WORD_PREFIX;
+        return SUBSTRING;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(trigram(text, i));
+        }
+        return grams;
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private static final class Entry {
+        private final Student student;
+        private final String name;
+        private final String email;
+
+        Entry(Student student, String name, String email) {
+            this.student = student;
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    // Growable ascending int array
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final class Match {
+        private final int rank;
+        private final Entry entry;
+
+        Match(int rank, Entry entry) {
+            this.rank = rank;
+            this.entry = entry;
+        }
+    }
+}
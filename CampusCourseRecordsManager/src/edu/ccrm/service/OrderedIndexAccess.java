@@ -0,0 +1,10 @@
+package edu.ccrm.service;
+
+// An index that can also return its rows in order of one field, for sorted and top-K queries
+interface OrderedIndexAccess<T> extends IndexAccess<T> {
+    // The field rows come back ordered by
+    Field<T, ?> getOrderField();
+
+    // Rows in order of the order field, restricted to the leaf when it is not null
+    Iterable<T> scanInOrder(Condition.Leaf<T> condition, boolean descending);
+}
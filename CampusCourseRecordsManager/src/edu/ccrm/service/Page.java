@@ -0,0 +1,52 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Predicate;
+
+// One page of a keyset-paginated listing in key order. The cursor is the last key on the page,
+// so the next page starts right after it even if records were added or removed in between.
+public final class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    private Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    // Up to size values matching the filter with keys after cursor (null for the first page).
+    // Walks from the cursor to the first match after the page, so the next-page cursor is only
+    // set when another match exists.
+    static <T> Page<T> of(NavigableMap<String, T> byKey, String cursor, int size, Predicate<T> filter) {
+        if (size <= 0) throw new IllegalArgumentException("Page size must be positive: " + size);
+
+        NavigableMap<String, T> rest = cursor == null ? byKey : byKey.tailMap(cursor, false);
+        Iterator<Map.Entry<String, T>> entries = rest.entrySet().iterator();
+        List<T> items = new ArrayList<>(size);
+        String lastKey = null;
+        while (items.size() < size && entries.hasNext()) {
+            Map.Entry<String, T> entry = entries.next();
+            if (filter.test(entry.getValue())) {
+                items.add(entry.getValue());
+                lastKey = entry.getKey();
+            }
+        }
+        boolean more = false;
+        while (!more && entries.hasNext()) {
+            more = filter.test(entries.next().getValue());
+        }
+        return new Page<>(items, more ? lastKey : null);
+    }
+
+    public List<T> getItems() { return items; }
+    public boolean isEmpty() { return items.isEmpty(); }
+
+    // Null on the last page
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
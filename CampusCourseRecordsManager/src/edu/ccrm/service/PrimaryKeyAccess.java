@@ -0,0 +1,37 @@
+package edu.ccrm.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+// Equality on the key field, served straight from the service's primary map
+final class PrimaryKeyAccess<T> implements IndexAccess<T> {
+    private final Field<T, String> keyField;
+    private final Map<String, T> byKey;
+
+    PrimaryKeyAccess(Field<T, String> keyField, Map<String, T> byKey) {
+        this.keyField = keyField;
+        this.byKey = byKey;
+    }
+
+    @Override
+    public String getName() {
+        return "primaryKey";
+    }
+
+    @Override
+    public long estimate(Condition.Leaf<T> condition) {
+        if (condition.getField() != keyField || !(condition instanceof Condition.Equals)) return -1;
+        return byKey.containsKey(key(condition)) ? 1 : 0;
+    }
+
+    @Override
+    public Collection<T> fetch(Condition.Leaf<T> condition) {
+        T item = byKey.get(key(condition));
+        return item == null ? Collections.emptyList() : Collections.singletonList(item);
+    }
+
+    private static <T> String key(Condition.Leaf<T> condition) {
+        return (String) ((Condition.Equals<T, ?>) condition).getValue();
+    }
+}
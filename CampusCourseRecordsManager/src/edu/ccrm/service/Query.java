@@ -0,0 +1,66 @@
+package edu.ccrm.service;
+
+import java.util.Objects;
+
+// Filter, sort order and limit for Searchable.query. Built with Query.Builder:
+//   new Query.Builder<Student>().where(StudentFields.GPA.atLeast(8.0)).orderBy(StudentFields.GPA, true).limit(10).build()
+public final class Query<T> {
+    private final Condition<T> condition;
+    private final Field<T, ?> orderBy;
+    private final boolean descending;
+    private final int limit;
+
+    private Query(Builder<T> builder) {
+        this.condition = builder.condition;
+        this.orderBy = builder.orderBy;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+    }
+
+    public static class Builder<T> {
+        private Condition<T> condition;
+        private Field<T, ?> orderBy;
+        private boolean descending;
+        private int limit = Integer.MAX_VALUE;
+
+        public Builder<T> where(Condition<T> condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public Builder<T> orderBy(Field<T, ?> field, boolean descending) {
+            this.orderBy = Objects.requireNonNull(field);
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder<T> limit(int limit) {
+            if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+            this.limit = limit;
+            return this;
+        }
+
+        public Query<T> build() {
+            return new Query<>(this);
+        }
+    }
+
+    // Null matches everything
+    public Condition<T> getCondition() { return condition; }
+    public Field<T, ?> getOrderBy() { return orderBy; }
+    public boolean isDescending() { return descending; }
+    public int getLimit() { return limit; }
+    public boolean hasLimit() { return limit != Integer.MAX_VALUE; }
+
+    boolean matches(T item) {
+        return condition == null || condition.test(item);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("WHERE ").append(condition != null ? condition : "TRUE");
+        if (orderBy != null) text.append(" ORDER BY ").append(orderBy).append(descending ? " DESC" : " ASC");
+        if (hasLimit()) text.append(" LIMIT ").append(limit);
+        return text.toString();
+    }
+}
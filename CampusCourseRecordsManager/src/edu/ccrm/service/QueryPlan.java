@@ -0,0 +1,66 @@
+package edu.ccrm.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// The access path the planner chose for a query, with its estimates. toString() is the explain output.
+public final class QueryPlan<T> {
+    public enum AccessPath {
+        FULL_SCAN,           // Every row tested in turn
+        PARALLEL_SCAN,       // Every row tested, split across the common pool
+        INDEX_LOOKUP,        // Candidate rows from one index
+        INDEX_UNION,         // Candidate rows from one index per OR branch
+        ORDERED_INDEX_SCAN   // Rows read in sort order from an index, stopping at the limit
+    }
+
+    private final Query<T> query;
+    private final String table;
+    private final AccessPath accessPath;
+    private final String access;
+    private final long tableRows;
+    private final long estimatedExamined;
+    private final long estimatedMatches;
+    private final boolean sortNeeded;
+    private final Supplier<List<T>> executor;
+
+    QueryPlan(Query<T> query, String table, AccessPath accessPath, String access, long tableRows,
+              long estimatedExamined, long estimatedMatches, boolean sortNeeded, Supplier<List<T>> executor) {
+        this.query = query;
+        this.table = table;
+        this.accessPath = accessPath;
+        this.access = access;
+        this.tableRows = tableRows;
+        this.estimatedExamined = estimatedExamined;
+        this.estimatedMatches = estimatedMatches;
+        this.sortNeeded = sortNeeded;
+        this.executor = executor;
+    }
+
+    public Query<T> getQuery() { return query; }
+    public AccessPath getAccessPath() { return accessPath; }
+    public long getTableRows() { return tableRows; }
+    public long getEstimatedExamined() { return estimatedExamined; }
+    public long getEstimatedMatches() { return estimatedMatches; }
+    public boolean isSortNeeded() { return sortNeeded; }
+
+    List<T> execute() {
+        return executor.get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("Query:  ").append(table).append(' ').append(query).append('\n');
+        text.append("Access: ").append(accessPath);
+        if (access != null) text.append(' ').append(access);
+        text.append('\n');
+        if (query.getCondition() != null) {
+            text.append("Filter: ").append(query.getCondition()).append('\n');
+        }
+        if (query.getOrderBy() != null) {
+            text.append("Sort:   ").append(sortNeeded ? "sort results by " + query.getOrderBy() : "index order").append('\n');
+        }
+        text.append(String.format("Rows:   ~%,d examined of %,d, ~%,d matching", estimatedExamined, tableRows, estimatedMatches));
+        return text.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package edu.ccrm.service;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Chooses an access path for a Query over one table: an index lookup, a union of lookups for an
+// OR, an ordered index scan that stops at the limit, or a scan of every row. Costs are rows
+// examined plus n log n for a sort; estimates come from the indexes, conditions they cannot
+// estimate are assumed to match every row, and AND terms are assumed independent.
+final class QueryPlanner<T> {
+    // Below this many rows a parallel scan costs more than it saves
+    static final int PARALLEL_SCAN_THRESHOLD = 20_000;
+
+    private final String table;
+    private final Collection<T> rows;
+    private final List<IndexAccess<T>> indexes;
+    private final Comparator<T> keyOrder;
+
+    // rows is a live view of the table; keyOrder breaks ties between equal sort values
+    QueryPlanner(String table, Collection<T> rows, List<IndexAccess<T>> indexes, Comparator<T> keyOrder) {
+        this.table = table;
+        this.rows = rows;
+        this.indexes = indexes;
+        this.keyOrder = keyOrder;
+    }
+
+    QueryPlan<T> plan(Query<T> query) {
+        long tableRows = rows.size();
+        Condition<T> where = query.getCondition();
+        long matches = estimateMatches(where, tableRows);
+        boolean sorted = query.getOrderBy() != null;
+        long sortCost = sorted ? sortCost(matches) : 0;
+
+        // A scan is always possible
+        boolean parallel = tableRows >= PARALLEL_SCAN_THRESHOLD;
+        QueryPlan<T> best = new QueryPlan<>(query, table,
+                parallel ? QueryPlan.AccessPath.PARALLEL_SCAN : QueryPlan.AccessPath.FULL_SCAN, null,
+                tableRows, tableRows, matches, sorted, () -> finish(query, parallel ? rows.parallelStream() : rows.stream()));
+        long bestCost = tableRows + sortCost;
+
+        Access<T> access = where == null ? null : access(where);
+        if (access != null && access.rows + sortCost <= bestCost) {
+            bestCost = access.rows + sortCost;
+            best = new QueryPlan<>(query, table, access.union ? QueryPlan.AccessPath.INDEX_UNION : QueryPlan.AccessPath.INDEX_LOOKUP,
+                    access.description, tableRows, access.rows, Math.min(matches, access.rows), sorted,
+                    () -> finish(query, access.fetch.get().stream()));
+        }
+
+        QueryPlan<T> ordered = orderedScan(query, tableRows, matches);
+        if (ordered != null && ordered.getEstimatedExamined() <= bestCost) {
+            best = ordered;
+        }
+        return best;
+    }
+
+    // Reads an ordered index on the sort field, narrowed by a condition on that field if there is one
+    private QueryPlan<T> orderedScan(Query<T> query, long tableRows, long matches) {
+        if (query.getOrderBy() == null) return null;
+        OrderedIndexAccess<T> index = null;
+        for (IndexAccess<T> candidate : indexes) {
+            if (candidate instanceof OrderedIndexAccess
+                    && ((OrderedIndexAccess<T>) candidate).getOrderField() == query.getOrderBy()) {
+                index = (OrderedIndexAccess<T>) candidate;
+            }
+        }
+        if (index == null) return null;
+
+        Condition.Leaf<T> range = null;
+        long rangeRows = tableRows;
+        for (Condition<T> term : conjuncts(query.getCondition())) {
+            if (term instanceof Condition.Leaf && ((Condition.Leaf<T>) term).getField() == query.getOrderBy()) {
+                long estimate = index.estimate((Condition.Leaf<T>) term);
+                if (estimate >= 0 && estimate < rangeRows) {
+                    range = (Condition.Leaf<T>) term;
+                    rangeRows = estimate;
+                }
+            }
+        }
+
+        // With a limit the scan stops once enough rows have passed the filter
+        long examined = rangeRows;
+        if (query.hasLimit() && matches > 0) {
+            double passRate = Math.min(1.0, (double) matches / Math.max(1, rangeRows));
+            examined = Math.min(rangeRows, (long) Math.ceil(query.getLimit() / passRate));
+        }
+
+        OrderedIndexAccess<T> orderedIndex = index;
+        Condition.Leaf<T> orderedRange = range;
+        String description = index.getName() + (query.isDescending() ? " DESC" : " ASC")
+                + (range != null ? " [" + range + "]" : "")
+                + (query.hasLimit() ? ", stops after " + query.getLimit() + " matches" : "");
+        return new QueryPlan<>(query, table, QueryPlan.AccessPath.ORDERED_INDEX_SCAN, description, tableRows,
+                examined, matches, false, () -> {
+                    List<T> result = new ArrayList<>();
+                    for (T item : orderedIndex.scanInOrder(orderedRange, query.isDescending())) {
+                        if (query.matches(item)) {
+                            result.add(item);
+                            if (result.size() >= query.getLimit()) break;
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    // Cheapest index access covering the condition, or null when it needs a scan
+    private Access<T> access(Condition<T> condition) {
+        if (condition instanceof Condition.Leaf) {
+            Condition.Leaf<T> leaf = (Condition.Leaf<T>) condition;
+            Access<T> best = null;
+            for (IndexAccess<T> index : indexes) {
+                long estimate = index.estimate(leaf);
+                if (estimate >= 0 && (best == null || estimate < best.rows)) {
+                    best = new Access<>(index.getName() + " [" + leaf + "]", estimate, false, () -> index.fetch(leaf));
+                }
+            }
+            return best;
+        }
+        if (condition instanceof Condition.And) {
+            Access<T> best = null;
+            for (Condition<T> term : ((Condition.And<T>) condition).getTerms()) {
+                Access<T> access = access(term);
+                if (access != null && (best == null || access.rows < best.rows)) best = access;
+            }
+            return best;
+        }
+        if (condition instanceof Condition.Or) {
+            List<Access<T>> branches = new ArrayList<>();
+            long total = 0;
+            for (Condition<T> term : ((Condition.Or<T>) condition).getTerms()) {
+                Access<T> access = access(term);
+                if (access == null) return null;
+                branches.add(access);
+                total += access.rows;
+            }
+            String description = branches.stream().map(branch -> branch.description)
+                    .collect(Collectors.joining(", ", "(", ")"));
+            return new Access<>(description, total, true, () -> {
+                Set<T> union = new LinkedHashSet<>();
+                for (Access<T> branch : branches) union.addAll(branch.fetch.get());
+                return union;
+            });
+        }
+        return null;
+    }
+
+    private long estimateMatches(Condition<T> condition, long tableRows) {
+        if (condition == null || tableRows == 0) return tableRows;
+        if (condition instanceof Condition.Leaf) {
+            long best = tableRows;
+            for (IndexAccess<T> index : indexes) {
+                long estimate = index.estimate((Condition.Leaf<T>) condition);
+                if (estimate >= 0) best = Math.min(best, estimate);
+            }
+            return best;
+        }
+        if (condition instanceof Condition.And) {
+            double fraction = 1.0;
+            for (Condition<T> term : ((Condition.And<T>) condition).getTerms()) {
+                fraction *= (double) estimateMatches(term, tableRows) / tableRows;
+            }
+            return (long) Math.ceil(fraction * tableRows);
+        }
+        if (condition instanceof Condition.Or) {
+            long total = 0;
+            for (Condition<T> term : ((Condition.Or<T>) condition).getTerms()) {
+                total += estimateMatches(term, tableRows);
+            }
+            return Math.min(tableRows, total);
+        }
+        return tableRows;
+    }
+
+    private List<T> finish(Query<T> query, Stream<T> candidates) {
+        Stream<T> result = candidates.filter(query::matches);
+        if (query.getOrderBy() != null) result = result.sorted(order(query.getOrderBy(), query.isDescending()));
+        if (query.hasLimit()) result = result.limit(query.getLimit());
+        return result.collect(Collectors.toList());
+    }
+
+    private Comparator<T> order(Field<T, ?> field, boolean descending) {
+        Comparator<T> order = byField(field).thenComparing(keyOrder);
+        return descending ? order.reversed() : order;
+    }
+
+    private static <T, V extends Comparable<? super V>> Comparator<T> byField(Field<T, V> field) {
+        return Comparator.comparing(field::get, Comparator.nullsLast(Comparator.<V>naturalOrder()));
+    }
+
+    // Top-level AND terms, descending into nested ANDs
+    private static <T> List<Condition<T>> conjuncts(Condition<T> condition) {
+        List<Condition<T>> terms = new ArrayList<>();
+        addConjuncts(condition, terms);
+        return terms;
+    }
+
+    private static <T> void addConjuncts(Condition<T> condition, List<Condition<T>> terms) {
+        if (condition instanceof Condition.And) {
+            for (Condition<T> term : ((Condition.And<T>) condition).getTerms()) addConjuncts(term, terms);
+        } else if (condition != null) {
+            terms.add(condition);
+        }
+    }
+
+    private static long sortCost(long rows) {
+        return rows <= 1 ? 0 : (long) (rows * (Math.log(rows) / Math.log(2)));
+    }
+
+    private static final class Access<T> {
+        private final String description;
+        private final long rows;
+        private final boolean union;
+        private final Supplier<Collection<T>> fetch;
+
+        Access(String description, long rows, boolean union, Supplier<Collection<T>> fetch) {
+            this.description = description;
+            this.rows = rows;
+            this.union = union;
+            this.fetch = fetch;
+        }
+    }
+}
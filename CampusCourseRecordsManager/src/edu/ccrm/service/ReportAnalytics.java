@@ -0,0 +1,138 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.CompactEnrollmentStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.StorageMode;
+import edu.ccrm.domain.SymbolTable;
+
+import java.util.*;
+
+// Report figures read from counters the services keep current as enrollments and grades change:
+// each course's roster size and the students per GPA band. No report walks the enrollments.
+public class ReportAnalytics {
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+
+    // Singleton pattern
+    private static ReportAnalytics instance;
+
+    private ReportAnalytics() {
+        this.studentService = StudentService.getInstance();
+        this.courseService = CourseService.getInstance();
+        this.enrollmentService = EnrollmentService.getInstance();
+    }
+
+    public static synchronized ReportAnalytics getInstance() {
+        if (instance == null) {
+            instance = new ReportAnalytics();
+        }
+        return instance;
+    }
+
+    // O(bands)
+    public Map<GpaBand, Long> getGpaDistribution() {
+        return studentService.getGpaDistribution();
+    }
+
+    // O(courses)
+    public Map<Course, Integer> getCourseEnrollmentCounts(boolean activeOnly) {
+        Map<Course, Integer> counts = new LinkedHashMap<>();
+        courseService.stream()
+                .filter(course -> !activeOnly || course.isActive())
+                .forEach(course -> counts.put(course, course.getEnrollmentCount()));
+        return counts;
+    }
+
+    // O(courses), grouped by case-folded department symbol; departments in name order
+    public Map<String, DepartmentTotals> getDepartmentTotals() {
+        SymbolTable symbols = SymbolTable.getInstance();
+        Map<Integer, DepartmentTotals> byDepartment = new HashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        courseService.stream().forEach(course -> {
+            String department = course.getDepartment() != null ? course.getDepartment() : "";
+            int key = symbols.foldedId(department);
+            names.putIfAbsent(key, department);
+            byDepartment.computeIfAbsent(key, id -> new DepartmentTotals()).add(course);
+        });
+
+        Map<String, DepartmentTotals> totals = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byDepartment.forEach((key, departmentTotals) -> totals.put(names.get(key), departmentTotals));
+        return totals;
+    }
+
+    // Recomputes every GPA and course average with loops over the enrollment store's columns and
+    // compares them with the running counters. Concurrent changes can show up as mismatches.
+    // Null in OBJECTS mode, where there are no columns to read.
+    public TotalsAudit auditRunningTotals() {
+        CompactEnrollmentStore store = enrollmentService.getStore();
+        if (store == null) return null;
+
+        long start = System.nanoTime();
+        int gpaMismatches = 0;
+        double[] gpas = store.computeGpas();
+        for (int student = 0; student < gpas.length; student++) {
+            if (Math.abs(store.getStudentByOrdinal(student).calculateGPA() - gpas[student]) > 1e-9) gpaMismatches++;
+        }
+        int averageMismatches = 0;
+        double[] averages = store.computeCourseAverages();
+        for (int course = 0; course < averages.length; course++) {
+            double running = store.getCourseByOrdinal(course).getGradeStatistics().summary().getAverage();
+            if (Math.abs(running - averages[course]) > 1e-6) averageMismatches++;
+        }
+        return new TotalsAudit(store.size(), store.getStorageMode(), store.getColumnBytes(), gpaMismatches,
+                averageMismatches, System.nanoTime() - start);
+    }
+
+    public static final class TotalsAudit {
+        private final int enrollments;
+        private final StorageMode storageMode;
+        private final long columnBytes;
+        private final int gpaMismatches;
+        private final int averageMismatches;
+        private final long nanos;
+
+        private TotalsAudit(int enrollments, StorageMode storageMode, long columnBytes, int gpaMismatches,
+                            int averageMismatches, long nanos) {
+            this.enrollments = enrollments;
+            this.storageMode = storageMode;
+            this.columnBytes = columnBytes;
+            this.gpaMismatches = gpaMismatches;
+            this.averageMismatches = averageMismatches;
+            this.nanos = nanos;
+        }
+
+        public int getEnrollments() { return enrollments; }
+        public StorageMode getStorageMode() { return storageMode; }
+        public long getColumnBytes() { return columnBytes; }
+        public int getGpaMismatches() { return gpaMismatches; }
+        public int getAverageMismatches() { return averageMismatches; }
+        public double getSeconds() { return nanos / 1e9; }
+
+        @Override
+        public String toString() {
+            return String.format("%,d enrollments (%,d %s column bytes) checked in %.3fs: %d GPA and %d course average mismatches",
+                    enrollments, columnBytes, storageMode, getSeconds(), gpaMismatches, averageMismatches);
+        }
+    }
+
+    public static final class DepartmentTotals {
+        private int courses;
+        private int activeCourses;
+        private long enrollments;
+        private long creditHours;
+
+        private void add(Course course) {
+            int enrolled = course.getEnrollmentCount();
+            courses++;
+            if (course.isActive()) activeCourses++;
+            enrollments += enrolled;
+            creditHours += (long) enrolled * course.getCredits();
+        }
+
+        public int getCourses() { return courses; }
+        public int getActiveCourses() { return activeCourses; }
+        public long getEnrollments() { return enrollments; }
+        public long getCreditHours() { return creditHours; }
+    }
+}
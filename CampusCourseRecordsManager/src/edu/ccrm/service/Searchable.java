@@ -1,9 +1,32 @@
 package edu.ccrm.service;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface Searchable<T> {
+    // Full scan; an opaque predicate cannot use an index
     List<T> search(Predicate<T> condition);
     T findById(String id);
+
+    // Copies every record; prefer stream() or page() for large tables
     List<T> findAll();
+
+    // Structured query, answered from indexes where the planner finds one that helps
+    List<T> query(Query<T> query);
+
+    // The plan query() would run, without running it
+    QueryPlan<T> explain(Query<T> query);
+
+    // Lazy stream in id order over the live records; nothing is copied.
+    // Weakly consistent: records changed during the walk may or may not be seen.
+    Stream<T> stream();
+
+    // Up to size records with ids after cursor (null for the first page), in id order
+    default Page<T> page(String cursor, int size) {
+        return page(cursor, size, item -> true);
+    }
+
+    // Up to size records matching the filter with ids after cursor, in id order. Non-matching
+    // records are skipped while the page is filled, so sparse matches cost a longer walk.
+    Page<T> page(String cursor, int size, Predicate<T> filter);
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.CompactEnrollmentStore;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The data behind StudentService, CourseService and EnrollmentService, published as one immutable
+// State so a replacement swaps all three in a single volatile write.
+// Guarantees: every service call reads the state once and works on that state only, so a reader
+// never sees new students beside the old enrollment index. A mutation racing with a replace lands
+// wholly in the replaced state (and is dropped with it) or wholly in the new one; enrollment
+// changes for student or course objects that are not registered in the current state are refused.
+// Objects obtained before a replace still describe the replaced state; look them up again after it.
+public final class ServiceState {
+    private static final Object REPLACE_LOCK = new Object();
+    private static volatile State current = new State(new StudentService.Registry(),
+            new CourseService.Registry(), new ConcurrentHashMap<>(), null);
+
+    private ServiceState() {}
+
+    static State current() {
+        return current;
+    }
+
+    // Replaces the contents of all services with a fully built data set.
+    // Indexes for the new data are built off to the side while the old data stays readable.
+    // The individual records are not reported to the mutation bus; listeners are told the whole
+    // state was replaced once the swap is done.
+    // The students, courses and enrollments must be fresh objects that reference each other only
+    public static void replace(Collection<Student> students, Collection<Course> courses,
+                               Collection<Enrollment> enrollments) {
+        synchronized (REPLACE_LOCK) {
+            // Enrollments first, so students enter the GPA index with their final totals
+            EnrollmentService enrollmentService = EnrollmentService.getInstance();
+            CompactEnrollmentStore store = enrollmentService.newStore();
+            Map<String, Enrollment> enrollmentIndex = enrollmentService.prepare(enrollments, store);
+            CourseService.Registry courseRegistry = CourseService.getInstance().prepare(courses);
+            StudentService.Registry studentRegistry = StudentService.getInstance().prepare(students);
+
+            current = new State(studentRegistry, courseRegistry, enrollmentIndex, store);
+        }
+        MutationBus.getInstance().stateReplaced();
+    }
+
+    // Single-service resets used by clear(); the other two parts are carried over
+    static void replaceStudents(StudentService.Registry students) {
+        synchronized (REPLACE_LOCK) {
+            current = new State(students, current.courses, current.enrollments, current.store);
+        }
+    }
+
+    static void replaceCourses(CourseService.Registry courses) {
+        synchronized (REPLACE_LOCK) {
+            current = new State(current.students, courses, current.enrollments, current.store);
+        }
+    }
+
+    static void replaceEnrollments(Map<String, Enrollment> enrollments, CompactEnrollmentStore store) {
+        synchronized (REPLACE_LOCK) {
+            current = new State(current.students, current.courses, enrollments, store);
+        }
+    }
+
+    static final class State {
+        final StudentService.Registry students;
+        final CourseService.Registry courses;
+        final Map<String, Enrollment> enrollments;  // (student, course) key index
+        final CompactEnrollmentStore store;          // Rows of the registered enrollments; null in OBJECTS mode
+
+        private State(StudentService.Registry students, CourseService.Registry courses,
+                      Map<String, Enrollment> enrollments, CompactEnrollmentStore store) {
+            this.students = students;
+            this.courses = courses;
+            this.enrollments = enrollments;
+            this.store = store;
+        }
+    }
+}
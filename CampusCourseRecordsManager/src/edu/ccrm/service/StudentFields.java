@@ -0,0 +1,16 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+
+// Queryable student fields. ID, GPA, NAME and EMAIL are indexed.
+public final class StudentFields {
+    public static final Field<Student, String> ID = new Field<>("id", String.class, Student::getId);
+    public static final Field<Student, String> REG_NO = new Field<>("regNo", String.class, Student::getRegNo);
+    public static final Field<Student, String> NAME = new Field<>("name", String.class, Student::getFullName);
+    public static final Field<Student, String> EMAIL = new Field<>("email", String.class, Student::getEmail);
+    public static final Field<Student, Double> GPA = new Field<>("gpa", Double.class, Student::calculateGPA);
+    public static final Field<Student, Boolean> ACTIVE = new Field<>("active", Boolean.class, Student::isActive);
+
+    private StudentFields() {
+    }
+}
@@ -1,6 +1,7 @@
 package edu.ccrm.service;
 
 
+import edu.ccrm.domain.GpaChangeListener;
 import edu.ccrm.domain.Student;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Course;
@@ -11,17 +12,24 @@ import edu.ccrm.exceptions.MaxCreditLimitExceededException;
 import java.util.function.Predicate;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class StudentService implements Searchable<Student> {
-    private final Map<String, Student> students;
+    private final EnrollmentService enrollmentService;
+    private final MutationBus mutationBus;
     private static final int MAX_CREDITS_PER_SEMESTER = 18;
 
     // Singleton pattern for StudentService
     private static StudentService instance;
 
     private StudentService() {
-        this.students = new HashMap<>();
+        this.enrollmentService = EnrollmentService.getInstance();
+        this.mutationBus = MutationBus.getInstance();
     }
 
     public static synchronized StudentService getInstance() {
@@ -34,113 +42,315 @@ public class StudentService implements Searchable<Student> {
     // Student CRUD operations
     public void addStudent(Student student) {
         if (student == null) throw new IllegalArgumentException("Student cannot be null");
-        students.put(student.getId(), student);
+        registry().register(student);
+        mutationBus.studentAdded(student);
+    }
+
+    // Drops all students and their indexes
+    public void clear() {
+        ServiceState.replaceStudents(new Registry());
+    }
+
+    // Builds a registry for a replacement data set without touching the live one.
+    // Enrollments should already be attached so each student is indexed with its final GPA.
+    Registry prepare(Collection<Student> students) {
+        Registry prepared = new Registry();
+        students.parallelStream().forEach(prepared::register);
+        return prepared;
+    }
+
+
+    // The registry of the current service state; read it once per operation
+    private static Registry registry() {
+        return ServiceState.current().students;
     }
 
     public Student getStudent(String id) {
-        return students.get(id);
+        return registry().students.get(id);
     }
 
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students.values());
+        return new ArrayList<>(registry().students.values());
     }
 
     public boolean updateStudent(String id, String fullName, String email) {
-        Student student = students.get(id);
-        if (student != null) {
+        Registry registry = registry();
+        Student student = registry.students.get(id);
+        if (student == null) return false;
+
+        Lock lock = enrollmentService.lockFor(student);
+        lock.lock();
+        try {
             student.setFullName(fullName);
             student.setEmail(email);
-            return true;
+            registry.nameIndex.add(student);
+            mutationBus.studentUpdated(student);
+        } finally {
+            lock.unlock();
         }
-        return false;
+        return true;
     }
 
     public boolean deactivateStudent(String id) {
-        Student student = students.get(id);
-        if (student != null) {
+        Student student = registry().students.get(id);
+        if (student == null) return false;
+
+        Lock lock = enrollmentService.lockFor(student);
+        lock.lock();
+        try {
             student.setActive(false);
-            return true;
+            mutationBus.studentUpdated(student);
+        } finally {
+            lock.unlock();
         }
-        return false;
+        return true;
     }
 
-    // Enrollment operations with exception handling
+    // Enrollment operations with exception handling.
+    // The duplicate and credit-limit checks and the insert run under the student's lock stripe.
     public void enrollStudent(Student student, Course course)
             throws DuplicateEnrollmentException, MaxCreditLimitExceededException {
 
-        // Check for duplicate enrollment
-        boolean alreadyEnrolled = student.getEnrollments().stream()
-                .anyMatch(e -> e.getCourse().equals(course));
+        Lock lock = enrollmentService.lockFor(student);
+        lock.lock();
+        try {
+            // Check for duplicate enrollment
+            if (enrollmentService.isEnrolled(student, course)) {
+                throw new DuplicateEnrollmentException(
+                        "Student " + student.getFullName() + " is already enrolled in " + course.getTitle());
+            }
+
+            // Check credit limit
+            int currentCredits = student.getEnrollments().stream()
+                    .mapToInt(e -> e.getCourse().getCredits())
+                    .sum();
+            int attemptedCredits = currentCredits + course.getCredits();
 
-        if (alreadyEnrolled) {
-            throw new DuplicateEnrollmentException(
-                    "Student " + student.getFullName() + " is already enrolled in " + course.getTitle());
+            if (attemptedCredits > MAX_CREDITS_PER_SEMESTER) {
+                throw new MaxCreditLimitExceededException(
+                        "Credit limit exceeded for student " + student.getFullName(),
+                        currentCredits, MAX_CREDITS_PER_SEMESTER, attemptedCredits);
+            }
+
+            // Create and add enrollment to the shared enrollment store
+            Enrollment enrollment = new Enrollment(student, course);
+            if (!enrollmentService.addEnrollment(enrollment)) {
+                // The data set was replaced since the caller looked these records up
+                throw new IllegalStateException("Student " + student.getId() + " or course " + course.getCode()
+                        + " is no longer registered");
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Check credit limit
-        int currentCredits = student.getEnrollments().stream()
-                .mapToInt(e -> e.getCourse().getCredits())
-                .sum();
-        int attemptedCredits = currentCredits + course.getCredits();
+    // Batch enrollment: requests are grouped by student, each group is validated in one pass over
+    // the student's enrollments and applied under a single hold of the student's lock stripe.
+    // Groups for different students run in parallel.
+    public BatchEnrollmentReport enrollAll(Collection<EnrollmentRequest> requests) {
+        Map<String, Student> students = registry().students;
+        EnrollmentResult[] results = new EnrollmentResult[requests.size()];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        List<EnrollmentRequest> ordered = new ArrayList<>(requests);
 
-        if (attemptedCredits > MAX_CREDITS_PER_SEMESTER) {
-            throw new MaxCreditLimitExceededException(
-                    "Credit limit exceeded for student " + student.getFullName(),
-                    currentCredits, MAX_CREDITS_PER_SEMESTER, attemptedCredits);
+        for (int i = 0; i < ordered.size(); i++) {
+            EnrollmentRequest request = ordered.get(i);
+            if (!students.containsKey(request.getStudentId())) {
+                results[i] = new EnrollmentResult(request, EnrollmentResult.Status.STUDENT_NOT_FOUND,
+                        "Student not found: " + request.getStudentId());
+            } else {
+                groups.computeIfAbsent(request.getStudentId(), id -> new ArrayList<>()).add(i);
+            }
         }
 
-        // Create and add enrollment
-        Enrollment enrollment = new Enrollment(student, course);
-        student.addEnrollment(enrollment);
+        CourseService courseService = CourseService.getInstance();
+        groups.entrySet().parallelStream().forEach(group ->
+                enrollGroup(students.get(group.getKey()), group.getValue(), ordered, results, courseService));
+
+        return new BatchEnrollmentReport(Arrays.asList(results));
     }
 
-    public void unenrollStudent(Student student, Course course) {
-        Enrollment enrollmentToRemove = student.getEnrollments().stream()
-                .filter(e -> e.getCourse().equals(course))
-                .findFirst()
-                .orElse(null);
+    private void enrollGroup(Student student, List<Integer> indexes, List<EnrollmentRequest> requests,
+                             EnrollmentResult[] results, CourseService courseService) {
+        Lock lock = enrollmentService.lockFor(student);
+        lock.lock();
+        try {
+            // Single pass over existing enrollments
+            Set<String> enrolledCodes = new HashSet<>();
+            int credits = 0;
+            for (Enrollment enrollment : student.getEnrollments()) {
+                enrolledCodes.add(enrollment.getCourse().getCode());
+                credits += enrollment.getCourse().getCredits();
+            }
+
+            Map<Integer, Enrollment> accepted = new LinkedHashMap<>();
+            for (int index : indexes) {
+                EnrollmentRequest request = requests.get(index);
+                Course course = courseService.getCourse(request.getCourseCode());
 
-        if (enrollmentToRemove != null) {
-            student.removeEnrollment(enrollmentToRemove);
+                if (course == null) {
+                    results[index] = new EnrollmentResult(request, EnrollmentResult.Status.COURSE_NOT_FOUND,
+                            "Course not found: " + request.getCourseCode());
+                } else if (!enrolledCodes.add(course.getCode())) {
+                    results[index] = new EnrollmentResult(request, EnrollmentResult.Status.DUPLICATE,
+                            "Student " + student.getFullName() + " is already enrolled in " + course.getTitle());
+                } else if (credits + course.getCredits() > MAX_CREDITS_PER_SEMESTER) {
+                    enrolledCodes.remove(course.getCode());
+                    results[index] = new EnrollmentResult(request, EnrollmentResult.Status.CREDIT_LIMIT_EXCEEDED,
+                            String.format("Credit limit exceeded for student %s (current: %d, max: %d, attempted: %d)",
+                                    student.getFullName(), credits, MAX_CREDITS_PER_SEMESTER,
+                                    credits + course.getCredits()));
+                } else {
+                    credits += course.getCredits();
+                    accepted.put(index, new Enrollment(student, course));
+                    results[index] = new EnrollmentResult(request, EnrollmentResult.Status.ENROLLED,
+                            "Enrolled in " + course.getTitle());
+                }
+            }
+
+            // Apply the validated group while still holding the stripe
+            accepted.forEach((index, enrollment) -> {
+                if (!enrollmentService.addEnrollment(enrollment)) {
+                    // The data set was replaced while this batch ran
+                    results[index] = new EnrollmentResult(requests.get(index), EnrollmentResult.Status.STUDENT_NOT_FOUND,
+                            "Student not found: " + student.getId());
+                }
+            });
+        } finally {
+            lock.unlock();
         }
     }
 
+    public void unenrollStudent(Student student, Course course) {
+        enrollmentService.removeEnrollment(student, course);
+    }
+
     // Searchable interface implementation using Streams
     @Override
     public List<Student> search(Predicate<Student> condition) {
-        return students.values().stream()
+        return registry().students.values().stream()
                 .filter(condition)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Student findById(String id) {
-        return students.get(id);
+        return registry().students.get(id);
     }
 
     @Override
     public List<Student> findAll() {
-        return new ArrayList<>(students.values());
+        return new ArrayList<>(registry().students.values());
     }
 
-    // Additional search methods using Streams API
+    @Override
+    public Stream<Student> stream() {
+        return registry().studentsById.values().stream();
+    }
+
+    @Override
+    public Page<Student> page(String cursor, int size, Predicate<Student> filter) {
+        return Page.of(registry().studentsById, cursor, size, filter);
+    }
+
+    @Override
+    public List<Student> query(Query<Student> query) {
+        return registry().planner.plan(query).execute();
+    }
+
+    @Override
+    public QueryPlan<Student> explain(Query<Student> query) {
+        return registry().planner.plan(query);
+    }
+
+    // Name searches served from the trigram index, best matches first
     public List<Student> searchByName(String name) {
-        return students.values().stream()
-                .filter(s -> s.getFullName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        return registry().nameIndex.search(name, false, Integer.MAX_VALUE);
     }
 
+    public List<Student> searchByNameOrEmail(String text, int limit) {
+        return registry().nameIndex.search(text, true, limit);
+    }
+
+    // Additional search methods using Streams API
     public List<Student> getActiveStudents() {
-        return students.values().stream()
+        return registry().students.values().stream()
                 .filter(Student::isActive)
                 .collect(Collectors.toList());
     }
 
-    public List<Student> getStudentsWithGpaAbove(double minGpa) {
-        return students.values().stream()
-                .filter(s -> s.calculateGPA() >= minGpa)
-                .sorted((s1, s2) -> Double.compare(s2.calculateGPA(), s1.calculateGPA()))
+    // Consistency check: students whose running GPA totals differ from a full recomputation
+    public List<Student> findStudentsWithInconsistentGpa() {
+        return registry().students.values().stream()
+                .filter(s -> !s.isGpaConsistent())
                 .collect(Collectors.toList());
     }
-}
 
+    // GPA queries served from the GPA index, highest GPA first
+    public List<Student> getStudentsWithGpaAbove(double minGpa) {
+        return registry().gpaIndex.atLeast(minGpa);
+    }
+
+    public List<Student> getStudentsWithGpaBetween(double minGpa, double maxGpa) {
+        return registry().gpaIndex.between(minGpa, maxGpa);
+    }
+
+    public List<Student> getTopStudents(int count) {
+        return registry().gpaIndex.top(count);
+    }
+
+    public List<Student> getBottomStudents(int count) {
+        return registry().gpaIndex.bottom(count);
+    }
+
+    // Student counts per GPA band, maintained as GPAs change
+    public Map<GpaBand, Long> getGpaDistribution() {
+        return registry().gpaDistribution.snapshot();
+    }
+
+    // Students and their indexes, swapped as a unit when the whole data set is replaced.
+    // Each registry keeps its own GPA index current for the students registered in it.
+    static final class Registry implements GpaChangeListener {
+        private final Map<String, Student> students = new ConcurrentHashMap<>();
+        // Same records in key order, for streamed and paged listings; lookups stay on the hash map
+        private final ConcurrentNavigableMap<String, Student> studentsById = new ConcurrentSkipListMap<>();
+        private final GpaDistribution gpaDistribution = new GpaDistribution();
+        private final GpaIndex gpaIndex = new GpaIndex(gpaDistribution);
+        private final NameIndex nameIndex = new NameIndex();
+        private final QueryPlanner<Student> planner = new QueryPlanner<>("students", students.values(),
+                Arrays.asList(new PrimaryKeyAccess<>(StudentFields.ID, students), gpaIndex, nameIndex),
+                Comparator.comparing(Student::getId));
+
+        // Whether this exact object is the student registered under its id
+        boolean contains(Student student) {
+            return students.get(student.getId()) == student;
+        }
+
+        private void register(Student student) {
+            Student previous = students.put(student.getId(), student);
+            studentsById.put(student.getId(), student);
+            if (previous != null && previous != student) {
+                synchronized (previous) {
+                    previous.setGpaListener(null);
+                    gpaIndex.remove(previous);
+                    gpaDistribution.remove(previous.calculateGPA());
+                }
+                nameIndex.remove(previous);
+            }
+            synchronized (student) {
+                student.setGpaListener(this);
+                gpaIndex.add(student);
+                gpaDistribution.add(student.calculateGPA());
+            }
+            nameIndex.add(student);
+        }
+
+        @Override
+        public void gpaChanged(Student student, double oldGpa, double newGpa) {
+            if (students.get(student.getId()) == student) {
+                gpaIndex.update(student, oldGpa, newGpa);
+                gpaDistribution.update(oldGpa, newGpa);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+// Transcript text assembled from fixed-width columns computed once, without format strings.
+// Produces the same text as the original String.format layout.
+final class TranscriptLayout {
+    private static final int CODE_WIDTH = 10;
+    private static final int TITLE_WIDTH = 30;
+    private static final int CREDITS_WIDTH = 6;
+    private static final int GRADE_WIDTH = 8;
+    private static final int MARKS_WIDTH = 10;
+
+    private final String courseWorkHeader;
+
+    TranscriptLayout() {
+        StringBuilder header = new StringBuilder(160);
+        column(header, "Code", CODE_WIDTH).append(' ');
+        column(header, "Course Title", TITLE_WIDTH).append(' ');
+        column(header, "Credits", CREDITS_WIDTH).append(' ');
+        column(header, "Grade", GRADE_WIDTH).append(' ');
+        column(header, "Marks", MARKS_WIDTH).append('\n');
+        header.append("-".repeat(70)).append('\n');
+        this.courseWorkHeader = header.toString();
+    }
+
+    // One pass over the student's enrollments; graded ones become rows
+    void render(Student student, StringBuilder out) {
+        out.append("OFFICIAL TRANSCRIPT\n")
+                .append("===================\n")
+                .append("Student: ").append(student.getFullName()).append('\n')
+                .append("Registration No: ").append(student.getRegNo()).append('\n')
+                .append("Overall GPA: ");
+        appendScaled(out, Math.round(student.calculateGPA() * 100), 100);
+        out.append("\n\n")
+                .append("COURSE WORK\n")
+                .append("===========\n");
+
+        boolean anyGraded = false;
+        for (Enrollment enrollment : student.getEnrollments()) {
+            if (!enrollment.isGraded()) continue;
+            if (!anyGraded) {
+                out.append(courseWorkHeader);
+                anyGraded = true;
+            }
+
+            Course course = enrollment.getCourse();
+            column(out, course.getCode(), CODE_WIDTH).append(' ');
+            column(out, course.getTitle(), TITLE_WIDTH).append(' ');
+            int start = out.length();
+            out.append(course.getCredits());
+            pad(out, start, CREDITS_WIDTH).append(' ');
+            column(out, enrollment.getGrade().name(), GRADE_WIDTH).append(' ');
+            start = out.length();
+            appendScaled(out, Math.round(enrollment.getMarks() * 10), 10);
+            pad(out, start, MARKS_WIDTH).append('\n');
+        }
+
+        if (!anyGraded) {
+            out.append("No graded courses found.\n");
+        }
+    }
+
+    private static StringBuilder column(StringBuilder out, String value, int width) {
+        int start = out.length();
+        out.append(value);
+        return pad(out, start, width);
+    }
+
+    private static StringBuilder pad(StringBuilder out, int start, int width) {
+        for (int i = out.length() - start; i < width; i++) out.append(' ');
+        return out;
+    }
+
+    // Fixed-point value with as many decimals as the scale has zeros
+    private static void appendScaled(StringBuilder out, long scaled, int scale) {
+        if (scaled < 0) {
+            out.append('-');
+            scaled = -scaled;
+        }
+        out.append(scaled / scale).append('.');
+        long fraction = scaled % scale;
+        for (int digit = scale / 10; digit > 1 && fraction < digit; digit /= 10) out.append('0');
+        out.append(fraction);
+    }
+}